@@ -1,7 +1,22 @@
 package io.github.jhahnhro.enhancedcdi.context;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -23,6 +38,11 @@ import jakarta.enterprise.context.spi.CreationalContext;
 public class GlobalContext implements SharedContext {
     /**
      * The backing map. {@code null} iff this context is closed.
+     * <p>
+     * The values are lazy {@link BeanInstance}s that serve as per-contextual placeholders: Only the placeholder is
+     * created while the map holds its lock, the contextual instance itself is created later by
+     * {@link BeanInstance#instance()}, i.e. outside the map's lock. A slow bean creation therefore only blocks threads
+     * waiting for that same bean, never threads creating unrelated beans.
      */
     private final AtomicReference<Map<Contextual<?>, BeanInstance<?>>> map = new AtomicReference<>(
             new ConcurrentHashMap<>());
@@ -46,8 +66,13 @@ public class GlobalContext implements SharedContext {
     }
 
     public <T> T get(Contextual<T> contextual, CreationalContext<T> context) {
-        final BeanInstance<T> beanInstance = (BeanInstance<T>) getInstanceMap()//
-                .computeIfAbsent(contextual, __ -> BeanInstance.createContextualInstance(contextual, context));
+        final Map<Contextual<?>, BeanInstance<?>> instanceMap = getInstanceMap();
+        // plain lookup first, because computeIfAbsent may lock the bin even if the placeholder already exists
+        BeanInstance<T> beanInstance = (BeanInstance<T>) instanceMap.get(contextual);
+        if (beanInstance == null) {
+            beanInstance = (BeanInstance<T>) instanceMap.computeIfAbsent(
+                    contextual, __ -> BeanInstance.createContextualInstance(contextual, context));
+        }
         return beanInstance.instance();
     }
 
@@ -74,6 +99,157 @@ public class GlobalContext implements SharedContext {
         throw new ContextClosedException(this);
     }
 
+    /**
+     * Serializes all contextual instances that are {@link Serializable} together with their
+     * {@link CreationalContext}s into the given store and removes them from this context, without destroying them.
+     * Serializing all instances at once preserves references between them and their dependent objects.
+     * <p>
+     * Must only be called while no thread uses this context.
+     *
+     * @param store where to store the serialized instances
+     * @return the passivated instances, or {@code null} if there are none.
+     * @throws IOException if the instances cannot be serialized or stored. This context is unchanged then.
+     */
+    Passivated passivate(PassivationStore store) throws IOException {
+        final Map<Contextual<?>, BeanInstance<?>> instanceMap = getInstanceMap();
+        final List<BeanInstance<?>> passivatable = instanceMap.values()
+                .stream()
+                .filter(beanInstance -> beanInstance.state() == BeanInstance.State.INITIALIZED
+                                        && beanInstance.instance() instanceof Serializable
+                                        && beanInstance.context() instanceof Serializable)
+                .toList();
+        if (passivatable.isEmpty()) {
+            return null;
+        }
+
+        final Object[] instancesAndContexts = new Object[2 * passivatable.size()];
+        for (int i = 0; i < passivatable.size(); i++) {
+            instancesAndContexts[2 * i] = passivatable.get(i).instance();
+            instancesAndContexts[2 * i + 1] = passivatable.get(i).context();
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Set<String> serializedClasses;
+        try (ClassRecordingObjectOutputStream out = new ClassRecordingObjectOutputStream(bytes)) {
+            out.writeObject(instancesAndContexts);
+            serializedClasses = Set.copyOf(out.classNames);
+        }
+        final PassivationStore.Entry entry = store.write(bytes.toByteArray());
+
+        final List<Contextual<?>> contextuals = passivatable.stream()
+                .<Contextual<?>>map(BeanInstance::contextual)
+                .toList();
+        passivatable.forEach(beanInstance -> instanceMap.remove(beanInstance.contextual(), beanInstance));
+        return new Passivated(contextuals, entry, serializedClasses);
+    }
+
+    /**
+     * Reads passivated instances back into this context and discards their stored data.
+     * <p>
+     * The stored data is deserialized with an {@link ObjectInputFilter} that only admits the classes that have been
+     * serialized by {@link #passivate(PassivationStore)}, in addition to the JVM-wide filter if there is one. Data that
+     * has been tampered with in the store therefore cannot instantiate arbitrary classes.
+     *
+     * @param passivated instances previously returned by {@link #passivate(PassivationStore)}
+     * @throws IOException            if the instances cannot be read or deserialized, e.g. because the data contains
+     *                                classes that have not been serialized. The stored data is kept then.
+     * @throws ClassNotFoundException if a class of a passivated instance cannot be found
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void restore(Passivated passivated) throws IOException, ClassNotFoundException {
+        final Object[] instancesAndContexts;
+        try (ObjectInputStream in = new ContextClassLoaderObjectInputStream(
+                new ByteArrayInputStream(passivated.entry().read()))) {
+            in.setObjectInputFilter(passivated.inputFilter());
+            instancesAndContexts = (Object[]) in.readObject();
+        }
+        final Map<Contextual<?>, BeanInstance<?>> instanceMap = getInstanceMap();
+        for (int i = 0; i < passivated.contextuals().size(); i++) {
+            final Contextual contextual = passivated.contextuals().get(i);
+            final CreationalContext context = (CreationalContext) instancesAndContexts[2 * i + 1];
+            instanceMap.putIfAbsent(contextual,
+                                    BeanInstance.ofContextualInstance(contextual, context, instancesAndContexts[2 * i]));
+        }
+        passivated.entry().discard();
+    }
+
+    /**
+     * Contextual instances that have been serialized to a {@link PassivationStore}. Only their contextuals stay on the
+     * heap.
+     *
+     * @param contextuals       the contextuals of the passivated instances, in the order they were serialized
+     * @param entry             the serialized instances and their creational contexts
+     * @param serializedClasses the names of all classes in the serialized data
+     */
+    record Passivated(List<Contextual<?>> contextuals, PassivationStore.Entry entry, Set<String> serializedClasses) {
+
+        /**
+         * @return a filter that rejects all classes but the serialized ones, merged with the JVM-wide filter.
+         */
+        ObjectInputFilter inputFilter() {
+            final ObjectInputFilter allowList = info -> {
+                final Class<?> serialClass = info.serialClass();
+                if (serialClass == null) {
+                    return ObjectInputFilter.Status.UNDECIDED;
+                }
+                final boolean serialized = Proxy.isProxyClass(serialClass)
+                                           ? Arrays.stream(serialClass.getInterfaces())
+                                                   .map(Class::getName)
+                                                   .allMatch(serializedClasses::contains)
+                                           : serializedClasses.contains(serialClass.getName());
+                return serialized ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+            };
+            final ObjectInputFilter jvmWideFilter = ObjectInputFilter.Config.getSerialFilter();
+            return jvmWideFilter == null ? allowList : ObjectInputFilter.merge(allowList, jvmWideFilter);
+        }
+    }
+
+    /**
+     * Records the names of all classes whose descriptors are written, i.e. of all classes that may be instantiated when
+     * the data is read back.
+     */
+    private static class ClassRecordingObjectOutputStream extends ObjectOutputStream {
+        private final Set<String> classNames = new HashSet<>();
+
+        ClassRecordingObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> cl) {
+            classNames.add(cl.getName());
+        }
+
+        @Override
+        protected void annotateProxyClass(Class<?> cl) {
+            for (Class<?> proxyInterface : cl.getInterfaces()) {
+                classNames.add(proxyInterface.getName());
+            }
+        }
+    }
+
+    /**
+     * Resolves classes with the thread context class loader if there is one, because the class loader of this class
+     * does not necessarily see the bean classes.
+     */
+    private static class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+        ContextClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // fall back to the default resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+
     /**
      * Destroys all current contextual instances, but does not close the context.
      */
@@ -95,6 +271,6 @@ public class GlobalContext implements SharedContext {
 
     @Override
     public boolean isClosed() {
-        return this.map.get() != null;
+        return this.map.get() == null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Storage outside the Java heap for the serialized contextual instances of
+ * {@link ThreadAwarePauseableContext#passivate(PassivationStore) passivated} contexts.
+ */
+public interface PassivationStore {
+
+    /**
+     * Stores the given data.
+     *
+     * @param data the serialized contextual instances of a context
+     * @return a handle to read the data back.
+     * @throws IOException if the data cannot be stored
+     */
+    Entry write(byte[] data) throws IOException;
+
+    /**
+     * Stores the data in direct {@link ByteBuffer}s. The memory is released once the context has been activated again
+     * and the buffer is garbage collected.
+     *
+     * @return a store that keeps passivated data in native memory.
+     */
+    static PassivationStore offHeap() {
+        return data -> {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(data.length).put(data).flip();
+            return new Entry() {
+                @Override
+                public byte[] read() {
+                    final byte[] result = new byte[buffer.remaining()];
+                    buffer.duplicate().get(result);
+                    return result;
+                }
+
+                @Override
+                public void discard() {
+                    // released by the garbage collector
+                }
+            };
+        };
+    }
+
+    /**
+     * Stores the data in temporary files in a new subdirectory of the given directory, one file per passivated context.
+     * The files are deleted once the context has been activated again.
+     * <p>
+     * On file systems with POSIX permissions, the subdirectory and the files are only accessible by the current user,
+     * so that other users can neither read the passivated instances nor replace them with data of their own.
+     *
+     * @param directory an existing, writable directory
+     * @return a store that keeps passivated data on disk.
+     * @throws IOException if the subdirectory cannot be created
+     */
+    static PassivationStore directory(Path directory) throws IOException {
+        Objects.requireNonNull(directory);
+        // temporary directories and files are created with owner-only permissions where supported
+        final Path privateDirectory = Files.createTempDirectory(directory, "passivation-");
+        privateDirectory.toFile().deleteOnExit();
+        return data -> {
+            final Path file = Files.createTempFile(privateDirectory, "passivated-", ".ser");
+            Files.write(file, data);
+            return new Entry() {
+                @Override
+                public byte[] read() throws IOException {
+                    return Files.readAllBytes(file);
+                }
+
+                @Override
+                public void discard() throws IOException {
+                    Files.deleteIfExists(file);
+                }
+            };
+        };
+    }
+
+    /**
+     * Handle to the data of one passivated context.
+     */
+    interface Entry {
+        /**
+         * @return the stored data.
+         * @throws IOException if the data cannot be read
+         */
+        byte[] read() throws IOException;
+
+        /**
+         * Releases the stored data. It is not read afterwards.
+         *
+         * @throws IOException if the data cannot be released
+         */
+        void discard() throws IOException;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.jhahnhro.enhancedcdi.context;
 
+import java.util.concurrent.Callable;
+
 /**
  * A {@link ContextController} for {@link PauseableContext pauseable contexts} that allows for explicit pausing, closing
  * and - if supported - unpausing of its context, firing the appropriate lifecycle events accordingly.
@@ -34,6 +36,82 @@ public interface PauseableContextController<CONTEXT extends PauseableContext>
         }
     }
 
+    /**
+     * Calls the given action within the context and returns its result. If this context is not yet active, tries to
+     * activate it first and pauses the context again after the action has completed. Like
+     * {@link #runInContext(Runnable)}, the action is not called if the context cannot be activated.
+     *
+     * @param action an action to call within the context
+     * @param <V>    the type of the action's result
+     * @return the action's result, or {@code null} if the context could not be activated.
+     * @throws Exception                     if the action throws
+     * @throws UnsupportedOperationException if the context is not active yet and manual activation is not supported.
+     */
+    default <V> V callInContext(Callable<V> action) throws Exception {
+        final CONTEXT context = getContext();
+        if (context.isActive()) {
+            return action.call();
+        }
+        if (!context.activate()) {
+            return null;
+        }
+        initialized();
+        try {
+            return action.call();
+        } finally {
+            beforePaused();
+            context.pause();
+            afterPaused();
+        }
+    }
+
+    /**
+     * Binds the given task to the context, so that it runs within the context in whichever thread it is eventually
+     * run. Intended for subtasks forked from within the context, e.g. to a
+     * {@code StructuredTaskScope} or a parallel stream: The context is activated in the worker
+     * thread for the duration of the task only, unless it already is active there.
+     * <p>
+     * In contrast to {@link #callInContext(Callable)}, no lifecycle events are fired, because the context is not
+     * activated or paused as a whole, it merely becomes visible in one more thread.
+     *
+     * @param task a task
+     * @param <V>  the type of the task's result
+     * @return a task that calls the given task within the context.
+     * @throws UnsupportedOperationException when the returned task is called, if manual activation is not supported.
+     */
+    default <V> Callable<V> inContext(Callable<V> task) {
+        final CONTEXT context = getContext();
+        return () -> {
+            final boolean activated = context.activate();
+            try {
+                return task.call();
+            } finally {
+                if (activated) {
+                    context.pause();
+                }
+            }
+        };
+    }
+
+    /**
+     * Binds the given task to the context, see {@link #inContext(Callable)}.
+     *
+     * @param task a task
+     * @return a task that runs the given task within the context.
+     */
+    default Runnable inContext(Runnable task) {
+        final CONTEXT context = getContext();
+        return () -> {
+            final boolean activated = context.activate();
+            try {
+                task.run();
+            } finally {
+                if (activated) {
+                    context.pause();
+                }
+            }
+        };
+    }
 
     /**
      * Activates the context.
@@ -1,17 +1,27 @@
 package io.github.jhahnhro.enhancedcdi.context;
 
 import java.lang.annotation.Annotation;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.ContextNotActiveException;
-import jakarta.enterprise.context.spi.Context;
 
 /**
  * A context that associates beans with "processes". Multiple threads can work on the same process and see the same set
@@ -31,6 +41,11 @@ import jakarta.enterprise.context.spi.Context;
  * for the same session/conversation, but also multiple conversations/sessions can be active at the same time. In
  * contrast to {@link jakarta.enterprise.context.RequestScoped} which is usually single-threaded, i.e. every thread in
  * which a RequestContext is active sees its own set of contextual instances.
+ * <p>
+ * Work can be handed to other threads within the same process with the {@code capture(...)} methods, which bind a task
+ * to the process that is active in the calling thread, or by wrapping an executor with {@link #propagating(Executor)}
+ * or {@link #propagating(ExecutorService)}. The latter also covers
+ * {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier, Executor)}.
  *
  * @param <KEY> the type of key identifying the processes
  * @param <P>   the type of processes
@@ -41,24 +56,21 @@ public class ProcessContext<KEY, P extends ProcessContext.Process<KEY>> extends
     private final Class<? extends Annotation> scope;
     private final Function<? super KEY, P> processCreator;
     /**
-     * All known, non-closed processes.
+     * All known, non-closed processes. Processes with different keys are created and removed independently of each
+     * other.
      */
-    private final Map<KEY, P> processes = new HashMap<>();
+    private final Map<KEY, P> processes = new ConcurrentHashMap<>();
     /**
-     * Guards the following invariants:
-     * <ul>
-     *    <li>{@code this.processed} can only be structurally changed while holding the write-lock</li>
-     *    <li>There is at most one process active in any thread</li>
-     *    <li>if {@code this.closed==true}, then all processes are closed as well</li>
-     * </ul>
+     * The process that has been activated in the current thread and not paused since. It may have been closed by
+     * another thread in the meantime. Guarantees that there is at most one process active in any thread.
      */
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Lock readLock = lock.readLock();
-    private final Lock writeLock = lock.writeLock();
+    private final ThreadLocal<Process<KEY>> activeProcess = new ThreadLocal<>();
     /**
-     * If this context is closed.
+     * If this context is closed. Once it is, all processes are closed as well: {@link #close()} closes all processes
+     * that are registered at that time, and {@link #getOrCreateProcess(Object)} closes a process that it registered
+     * concurrently.
      */
-    private boolean closed = false;
+    private volatile boolean closed = false;
 
     public ProcessContext(final Class<? extends Annotation> scope, final Function<? super KEY, P> processCreator) {
         this.scope = scope;
@@ -82,14 +94,118 @@ public class ProcessContext<KEY, P extends ProcessContext.Process<KEY>> extends
 
     @Override
     public boolean isActive() {
-        readLock.lock();
+        final Process<KEY> process = activeProcess.get();
+        return process != null && process.isActive();
+    }
+
+    /**
+     * @return the process that is active in the current thread, if any.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<P> getActiveProcess() {
+        final Process<KEY> process = activeProcess.get();
+        return process != null && process.isActive() ? Optional.of((P) process) : Optional.empty();
+    }
+
+    /**
+     * Binds the given task to the process that is active in the current thread, so that the process is activated for
+     * the duration of the task in whichever thread the task is eventually run, and paused afterwards. If the process
+     * already is active in that thread, it stays active. If no process is active in the current thread, the task is
+     * returned unchanged.
+     * <p>
+     * No lifecycle events are fired, the process merely becomes visible in one more thread.
+     *
+     * @param task a task
+     * @return a task that runs within the current process.
+     */
+    public Runnable capture(Runnable task) {
+        final Process<KEY> process = currentProcess();
+        return process == null ? task : () -> applyWithin(process, task, (Runnable t) -> {
+            t.run();
+            return null;
+        });
+    }
+
+    /**
+     * Binds the given task to the process that is active in the current thread, see {@link #capture(Runnable)}.
+     *
+     * @param task a task
+     * @return a task that is called within the current process.
+     */
+    public <V> Callable<V> capture(Callable<V> task) {
+        final Process<KEY> process = currentProcess();
+        return process == null ? task : () -> applyWithin(process, task, Callable::call);
+    }
+
+    /**
+     * Binds the given function to the process that is active in the current thread, see {@link #capture(Runnable)}.
+     * Intended for dependent stages of a {@link java.util.concurrent.CompletionStage}, e.g.
+     * {@link java.util.concurrent.CompletionStage#thenApplyAsync(Function)}, because they are run in whichever thread
+     * completes the previous stage.
+     *
+     * @param function a function
+     * @return a function that is applied within the current process.
+     */
+    public <T, R> Function<T, R> capture(Function<T, R> function) {
+        final Process<KEY> process = currentProcess();
+        return process == null ? function : t -> applyWithin(process, t, function::apply);
+    }
+
+    /**
+     * @return the process that is active in the current thread, or {@code null} if there is none.
+     */
+    private Process<KEY> currentProcess() {
+        final Process<KEY> process = activeProcess.get();
+        return process != null && process.isActive() ? process : null;
+    }
+
+    /**
+     * Applies the action to the argument within the given process, activating the process for the duration of the
+     * action unless it is already active in the current thread. All {@code capture(...)} methods end up here.
+     */
+    private static <T, R, EX extends Exception> R applyWithin(Process<?> process, T argument,
+                                                              ThrowingFunction<T, R, EX> action) throws EX {
+        final boolean activated = process.activate();
         try {
-            return processes.values().stream().anyMatch(Context::isActive);
+            return action.apply(argument);
         } finally {
-            readLock.unlock();
+            if (activated) {
+                process.pause();
+            }
         }
     }
 
+    @FunctionalInterface
+    private interface ThrowingFunction<T, R, EX extends Exception> {
+        R apply(T argument) throws EX;
+    }
+
+    /**
+     * Wraps the given executor such that every task runs within the process that is active in the thread handing the
+     * task to the executor, see {@link #capture(Runnable)}.
+     *
+     * @param executor an executor
+     * @return an executor that propagates the current process to its tasks.
+     * @apiNote The process is captured when {@link Executor#execute(Runnable)} is called. For dependent stages of a
+     * {@link java.util.concurrent.CompletableFuture}, that happens in the thread that completes the previous stage,
+     * not necessarily in the thread that registered the dependent stage. Use {@link #capture(Function)} there.
+     */
+    public Executor propagating(Executor executor) {
+        return task -> executor.execute(capture(task));
+    }
+
+    /**
+     * Wraps the given executor service such that every task runs within the process that is active in the thread
+     * submitting the task, see {@link #propagating(Executor)}. Shutting down the returned executor service shuts down
+     * the given one.
+     *
+     * @param executorService an executor service
+     * @return an executor service that propagates the current process to its tasks.
+     */
+    public ExecutorService propagating(ExecutorService executorService) {
+        return new ProcessPropagatingExecutorService(this, executorService);
+    }
+
     /**
      * Returns all processes currently in this context. Note that closed processes get automatically removed and are
      * never contained in the result.
@@ -97,12 +213,7 @@ public class ProcessContext<KEY, P extends ProcessContext.Process<KEY>> extends
      * @return all processes of this context. Immutable and never {@code null}.
      */
     public Set<P> getProcesses() {
-        readLock.lock();
-        try {
-            return Set.copyOf(processes.values());
-        } finally {
-            readLock.unlock();
-        }
+        return Set.copyOf(processes.values());
     }
 
     /**
@@ -113,53 +224,135 @@ public class ProcessContext<KEY, P extends ProcessContext.Process<KEY>> extends
      * @throws ContextClosedException if this context has already been closed.
      */
     public P getOrCreateProcess(KEY key) {
-        writeLock.lock();
-        try {
-            checkOpen();
-            return processes.computeIfAbsent(key, processCreator);
-        } finally {
-            writeLock.unlock();
+        checkOpen();
+        P process = processes.computeIfAbsent(key, processCreator);
+        if (process.isClosed()) {
+            // closed by eviction, but not removed yet
+            process = processes.compute(key, (k, existing) -> existing == null || existing.isClosed()
+                    ? processCreator.apply(k) : existing);
         }
+        if (closed) {
+            // close() may have missed the process
+            process.close();
+            throw new ContextClosedException(this);
+        }
+        return process;
     }
 
     @Override
     public boolean isClosed() {
-        readLock.lock();
-        try {
-            return closed;
-        } finally {
-            readLock.unlock();
-        }
+        return closed;
     }
 
     /**
      * Closes all processes of this context and blocks until all processes are closed. This destroys all beans in this
      * context. This context cannot be activated again afterwards. New processes cannot be created either.
      * <p>
+     * If a process is active in the current thread, it is paused in the current thread as well, see
+     * {@link ThreadAwarePauseableContext#close()}.
+     * <p>
      * The method is idempotent. Calling it multiple times has no additional effect.
      */
     @Override
     public void close() {
-        writeLock.lock();
+        closed = true;
+        // closed processes remove themselves
+        processes.values().forEach(CloseableContext::close);
+    }
+
+    /**
+     * Like {@link #close()}, but closes the processes concurrently on the given executor and waits at most until the
+     * given timeout has elapsed. Closing a process blocks until all threads have paused it, so a single busy process
+     * does not delay closing the others.
+     * <p>
+     * Processes that are not closed when the timeout elapses are still closed eventually, as soon as all threads have
+     * paused them.
+     * <p>
+     * As with {@link #close()}, the process that is active in the current thread, if any, is paused before this method
+     * returns, even if closing it times out. Otherwise, closing it would wait for the current thread, which is itself
+     * waiting for the processes to be closed.
+     *
+     * @param executor the executor that closes the processes. Its parallelism bounds the number of processes closed
+     *                 at the same time.
+     * @param timeout  the maximum time to wait
+     * @return the processes that have not been closed within the timeout or whose closing failed. Immutable and never
+     * {@code null}.
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public Set<P> close(Executor executor, Duration timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        closed = true;
+        // the processes are closed in other threads, which would otherwise wait for the current thread
+        getActiveProcess().ifPresent(PauseableContext::pause);
+
+        final Map<P, CompletableFuture<Void>> closing = new HashMap<>();
+        for (P process : processes.values()) {
+            CompletableFuture<Void> future;
+            try {
+                future = CompletableFuture.runAsync(process::close, executor);
+            } catch (RejectedExecutionException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            closing.put(process, future);
+        }
+
         try {
-            closed = true;
-            processes.values().forEach(CloseableContext::close);
-            processes.clear();
+            CompletableFuture.allOf(closing.values().toArray(CompletableFuture[]::new))
+                    .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // reported below
+        }
+        return closing.entrySet()
+                .stream()
+                .filter(entry -> !entry.getValue().isDone() || entry.getValue().isCompletedExceptionally())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Like {@link #close(Executor, Duration)} with an executor of {@code parallelism} daemon threads that is shut down
+     * afterwards.
+     *
+     * @param parallelism the maximum number of processes closed at the same time. Must be positive.
+     * @param timeout     the maximum time to wait
+     * @return the processes that have not been closed within the timeout or whose closing failed. Immutable and never
+     * {@code null}.
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public Set<P> close(int parallelism, Duration timeout) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "process-close-" + scope.getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return close(executor, timeout);
         } finally {
-            writeLock.unlock();
+            // processes that are still closing are closed in the background
+            executor.shutdown();
         }
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     protected P delegate() {
         // delegate get(Contextual), get(Contextual, CreationalContext) and destroy(Contextual) to the process that
         // is active in the current thread
-        return getProcesses().stream().filter(Context::isActive).findAny().orElseThrow(ContextNotActiveException::new);
+        final Process<KEY> process = activeProcess.get();
+        if (process == null || !process.isActive()) {
+            throw new ContextNotActiveException();
+        }
+        // only processes created by this context's processCreator are ever activated
+        return (P) process;
     }
 
     public static class Process<KEY> extends ThreadAwarePauseableContext {
         protected final KEY key;
         private final ProcessContext<KEY, ? extends Process<KEY>> processContext;
+        /**
+         * {@link System#nanoTime()} of the last activation or pause in any thread.
+         */
+        private volatile long lastActivity = System.nanoTime();
 
         /**
          * @param processContext the process's context
@@ -176,33 +369,48 @@ public class ProcessContext<KEY, P extends ProcessContext.Process<KEY>> extends
 
         @Override
         public boolean activate() {
-            processContext.readLock.lock();
+            checkOpen();
+            final Process<KEY> otherProcess = processContext.activeProcess.get();
+            if (otherProcess != null && otherProcess != this && otherProcess.isActive()) {
+                throw new IllegalStateException(
+                        "This process with cannot be activated in current thread, because the process with key="
+                        + otherProcess.getKey() + " is already active");
+            }
+            final boolean activated = super.activate();
+            processContext.activeProcess.set(this);
+            lastActivity = System.nanoTime();
+            return activated;
+        }
 
-            try {
-                checkOpen();
-                processContext.processes.values()
-                        .stream()
-                        .filter(otherProcess -> this != otherProcess && otherProcess.isActive())
-                        .findAny()
-                        .ifPresent(otherProcess -> {
-                            throw new IllegalStateException(
-                                    "This process with cannot be activated in current thread, because the process "
-                                    + "with key=" + otherProcess.getKey() + " is already active");
-                        });
-                return super.activate();
-            } finally {
-                processContext.readLock.unlock();
+        @Override
+        public void pause() {
+            super.pause();
+            if (processContext.activeProcess.get() == this) {
+                processContext.activeProcess.remove();
+                lastActivity = System.nanoTime();
             }
         }
 
+        /**
+         * @return how long this process has not been used, or {@link Duration#ZERO} if it is currently active in any
+         * thread.
+         */
+        public Duration idleTime() {
+            return isActiveInAnyThread() ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - lastActivity);
+        }
+
         @Override
-        public void close() {
-            processContext.writeLock.lock();
-            try {
-                processContext.processes.remove(key);
-            } finally {
-                processContext.writeLock.unlock();
+        boolean refuseActivationIfIdle() {
+            if (!super.refuseActivationIfIdle()) {
+                return false;
             }
+            processContext.processes.remove(key, this);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            processContext.processes.remove(key, this);
             super.close();
         }
 
@@ -1,13 +1,34 @@
 package io.github.jhahnhro.enhancedcdi.context;
 
+import java.lang.System.Logger.Level;
 import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.inject.Vetoed;
 import jakarta.inject.Inject;
 
+/**
+ * A {@link CloseableContextController} for a {@link ProcessContext} that also provides a
+ * {@link PauseableContextController} for each of its processes.
+ * <p>
+ * Processes live until they are closed explicitly, unless {@link #enableEviction(EvictionPolicy) eviction} is enabled.
+ * Then processes that are idle for too long, or the least recently active processes if there are too many, are closed
+ * in the background, firing the same lifecycle events as {@link ProcessController#closeContext()}. Similarly,
+ * idle processes can be {@link #enablePassivation(Duration, PassivationStore) passivated} in the background.
+ */
 @Vetoed
 public class ProcessContextController<KEY, PROCESS extends ProcessContext.Process<KEY>,
         CONTEXT extends ProcessContext<KEY, PROCESS>>
@@ -15,6 +36,14 @@ public class ProcessContextController<KEY, PROCESS extends ProcessContext.Proces
 
     private final CONTEXT context;
     private final Map<KEY, ProcessController> processControllers = new ConcurrentHashMap<>();
+    private final LongAdder idleTimeoutEvictions = new LongAdder();
+    private final LongAdder maxProcessesEvictions = new LongAdder();
+    /**
+     * Runs eviction and passivation in the background. Created on first use.
+     */
+    private ScheduledExecutorService housekeeping;
+    private ScheduledFuture<?> evictionTask;
+    private ScheduledFuture<?> passivationTask;
 
     @Inject
     protected Event<CONTEXT> contextLifecycle;
@@ -42,15 +71,306 @@ public class ProcessContextController<KEY, PROCESS extends ProcessContext.Proces
         return contextLifecycle;
     }
 
+    /**
+     * Returns the controller for the process with the given key, creating the process if it does not exist or has
+     * been closed.
+     *
+     * @param key a process key
+     * @return the controller of the process with the given key.
+     * @throws ContextClosedException if the context has already been closed.
+     */
     public ProcessController processController(KEY key) {
-        return processControllers.computeIfAbsent(key, k -> new ProcessController(context.getOrCreateProcess(k)));
+        final ProcessController processController = processControllers.get(key);
+        if (processController != null && !processController.getContext().isClosed()) {
+            return processController;
+        }
+        return processControllers.compute(key, (k, existing) -> existing == null || existing.getContext().isClosed()
+                ? new ProcessController(context.getOrCreateProcess(k)) : existing);
+    }
+
+    @Override
+    public synchronized void closeContext() {
+        stopHousekeeping();
+        CloseableContextController.super.closeContext();
+        processControllers.clear();
+    }
+
+    /**
+     * Like {@link #closeContext()}, but closes the processes concurrently.
+     *
+     * @param executor the executor that closes the processes
+     * @param timeout  the maximum time to wait
+     * @return the processes that have not been closed within the timeout or whose closing failed.
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see ProcessContext#close(Executor, Duration)
+     */
+    public synchronized Set<PROCESS> closeContext(Executor executor, Duration timeout) throws InterruptedException {
+        stopHousekeeping();
+        if (context.isClosed()) {
+            return Set.of();
+        }
+        beforeDestroyed();
+        final Set<PROCESS> notClosed = context.close(executor, timeout);
+        afterDestroyed();
+        processControllers.clear();
+        return notClosed;
+    }
+
+    private void stopHousekeeping() {
+        if (housekeeping != null) {
+            housekeeping.shutdownNow();
+            housekeeping = null;
+        }
+    }
+
+    //region Eviction
+
+    /**
+     * Starts evicting processes in the background according to the given policy, replacing the previous policy if
+     * eviction was already enabled.
+     *
+     * @param policy the eviction policy
+     */
+    public synchronized void enableEviction(EvictionPolicy policy) {
+        Objects.requireNonNull(policy);
+        disableEviction();
+        evictionTask = schedule(() -> evictProcesses(policy), policy.interval());
+    }
+
+    /**
+     * Stops evicting processes in the background. Does nothing if eviction is not enabled.
+     */
+    public synchronized void disableEviction() {
+        if (evictionTask != null) {
+            evictionTask.cancel(false);
+            evictionTask = null;
+        }
+    }
+
+    /**
+     * Evicts processes according to the given policy once. Only processes that are not currently active in any thread
+     * are evicted, and an evicted process cannot be activated anymore, even if another thread tries to while it is
+     * being evicted. Processes that have been idle for longer than {@link EvictionPolicy#idleTimeout()} are always
+     * evicted, afterwards the least recently active processes are evicted until there are at most
+     * {@link EvictionPolicy#maxProcesses()} processes left.
+     *
+     * @param policy the eviction policy
+     */
+    public void evictProcesses(EvictionPolicy policy) {
+        try {
+            final List<PROCESS> idleProcesses = context.getProcesses()
+                    .stream()
+                    .map(process -> Map.entry(process, process.idleTime()))
+                    .filter(entry -> entry.getValue().isPositive())
+                    .sorted(Map.Entry.<PROCESS, Duration>comparingByValue(Comparator.reverseOrder()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+
+            int excess = context.getProcesses().size() - policy.maxProcesses();
+            for (PROCESS process : idleProcesses) {
+                final boolean timedOut = policy.idleTimeout() != null
+                                         && process.idleTime().compareTo(policy.idleTimeout()) > 0;
+                if (!timedOut && excess <= 0) {
+                    // all remaining processes have been idle for a shorter time
+                    break;
+                }
+                if (!evict(process)) {
+                    // activated again in the meantime
+                    continue;
+                }
+                (timedOut ? idleTimeoutEvictions : maxProcessesEvictions).increment();
+                excess--;
+            }
+        } catch (ContextClosedException e) {
+            // nothing left to evict
+        } catch (RuntimeException e) {
+            // must not cancel the periodic eviction
+            System.getLogger(ProcessContextController.class.getName())
+                    .log(Level.WARNING, "Evicting processes failed", e);
+        }
+    }
+
+    private boolean evict(PROCESS process) {
+        final ProcessController processController = processControllers.get(process.getKey());
+        if (processController != null && processController.getContext() == process) {
+            return processController.closeContextIfIdle();
+        }
+        // created directly in the context, not through this controller
+        return new ProcessController(process).closeContextIfIdle();
+    }
+
+    private ScheduledFuture<?> schedule(Runnable task, Duration interval) {
+        context.checkOpen();
+        if (housekeeping == null) {
+            housekeeping = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "process-housekeeping-" + context.getScope().getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        final long millis = interval.toMillis();
+        return housekeeping.scheduleWithFixedDelay(task, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the number of processes evicted so far.
+     */
+    public EvictionStatistics getEvictionStatistics() {
+        return new EvictionStatistics(idleTimeoutEvictions.sum(), maxProcessesEvictions.sum());
     }
 
+    /**
+     * Defines which processes are evicted.
+     *
+     * @param idleTimeout  processes that have not been active in any thread for longer than this are evicted.
+     *                     {@code null} to disable the timeout.
+     * @param maxProcesses if there are more processes than this, the least recently active ones are evicted. Must not
+     *                     be negative.
+     * @param interval     the delay between two runs of the background eviction. Must be positive.
+     */
+    public record EvictionPolicy(Duration idleTimeout, int maxProcesses, Duration interval) {
+        /**
+         * @throws IllegalArgumentException if {@code idleTimeout} is negative, {@code maxProcesses} is negative or
+         *                                  {@code interval} is not positive.
+         * @throws NullPointerException     if {@code interval} is {@code null}.
+         */
+        public EvictionPolicy {
+            if (idleTimeout != null && idleTimeout.isNegative()) {
+                throw new IllegalArgumentException("idleTimeout must not be negative");
+            }
+            if (maxProcesses < 0) {
+                throw new IllegalArgumentException("maxProcesses must not be negative");
+            }
+            if (!interval.isPositive()) {
+                throw new IllegalArgumentException("interval must be positive");
+            }
+        }
+
+        /**
+         * Evicts processes that have been idle for longer than the given timeout, checking every
+         * {@code idleTimeout / 2}.
+         */
+        public static EvictionPolicy idleLongerThan(Duration idleTimeout) {
+            return new EvictionPolicy(Objects.requireNonNull(idleTimeout), Integer.MAX_VALUE,
+                                      Duration.ofMillis(Math.max(1, idleTimeout.toMillis() / 2)));
+        }
+
+        /**
+         * @return a policy that additionally limits the number of processes.
+         */
+        public EvictionPolicy withMaxProcesses(int maxProcesses) {
+            return new EvictionPolicy(idleTimeout, maxProcesses, interval);
+        }
+    }
+
+    /**
+     * @param idleTimeoutEvictions  number of processes evicted because they were idle for too long.
+     * @param maxProcessesEvictions number of processes evicted because there were too many.
+     */
+    public record EvictionStatistics(long idleTimeoutEvictions, long maxProcessesEvictions) {
+        /**
+         * @return the total number of evicted processes.
+         */
+        public long total() {
+            return idleTimeoutEvictions + maxProcessesEvictions;
+        }
+    }
+    //endregion
+
+    //region Passivation
+
+    /**
+     * Starts {@link ThreadAwarePauseableContext#passivate(PassivationStore) passivating} processes in the background
+     * that have been idle for longer than the given time, replacing the previous settings if passivation was already
+     * enabled.
+     *
+     * @param idleTime how long a process must not have been active before it is passivated. Must be positive.
+     * @param store    where to store the passivated instances
+     */
+    public synchronized void enablePassivation(Duration idleTime, PassivationStore store) {
+        Objects.requireNonNull(store);
+        if (!idleTime.isPositive()) {
+            throw new IllegalArgumentException("idleTime must be positive");
+        }
+        disablePassivation();
+        passivationTask = schedule(() -> passivateProcesses(idleTime, store),
+                                   Duration.ofMillis(Math.max(1, idleTime.toMillis() / 2)));
+    }
+
+    /**
+     * Stops passivating processes in the background. Already passivated processes stay passivated until they are
+     * activated again. Does nothing if passivation is not enabled.
+     */
+    public synchronized void disablePassivation() {
+        if (passivationTask != null) {
+            passivationTask.cancel(false);
+            passivationTask = null;
+        }
+    }
+
+    /**
+     * Passivates all processes once that have been idle for longer than the given time and are not passivated yet.
+     *
+     * @param idleTime how long a process must not have been active before it is passivated
+     * @param store    where to store the passivated instances
+     * @return the number of processes that have been passivated.
+     */
+    public int passivateProcesses(Duration idleTime, PassivationStore store) {
+        int passivatedProcesses = 0;
+        try {
+            for (PROCESS process : context.getProcesses()) {
+                final boolean idle = process.idleTime().compareTo(idleTime) > 0;
+                if (idle && !process.isPassivated() && passivate(process, store)) {
+                    passivatedProcesses++;
+                }
+            }
+        } catch (ContextClosedException e) {
+            // nothing left to passivate
+        }
+        return passivatedProcesses;
+    }
+
+    private static boolean passivate(ProcessContext.Process<?> process, PassivationStore store) {
+        try {
+            return process.passivate(store);
+        } catch (RuntimeException e) {
+            // must not prevent the passivation of the other processes
+            System.getLogger(ProcessContextController.class.getName())
+                    .log(Level.WARNING, "Passivating process " + process.getKey() + " failed", e);
+            return false;
+        }
+    }
+    //endregion
+
     public class ProcessController implements PauseableContextController<PROCESS> {
         private final PROCESS process;
 
         public ProcessController(PROCESS process) {this.process = process;}
 
+        @Override
+        public void closeContext() {
+            PauseableContextController.super.closeContext();
+            processControllers.remove(process.getKey(), this);
+        }
+
+        /**
+         * Like {@link #closeContext()}, but only if the process is not active in any thread. The process refuses to be
+         * activated again before the lifecycle events are fired, so closing it never blocks and never destroys
+         * contextual instances that are still in use.
+         *
+         * @return {@code true} iff the process has been closed by this call.
+         */
+        boolean closeContextIfIdle() {
+            if (!process.refuseActivationIfIdle()) {
+                return false;
+            }
+            beforeDestroyed();
+            process.close();
+            afterDestroyed();
+            processControllers.remove(process.getKey(), this);
+            return true;
+        }
+
         @Override
         public PROCESS getContext() {
             return process;
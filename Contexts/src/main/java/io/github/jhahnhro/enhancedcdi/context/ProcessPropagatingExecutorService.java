@@ -0,0 +1,53 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link ExecutorService} that runs every task within the process that was active in the thread that submitted
+ * it.
+ *
+ * @see ProcessContext#propagating(ExecutorService)
+ */
+final class ProcessPropagatingExecutorService extends AbstractExecutorService {
+    private final ProcessContext<?, ?> processContext;
+    private final ExecutorService delegate;
+
+    ProcessPropagatingExecutorService(ProcessContext<?, ?> processContext, ExecutorService delegate) {
+        this.processContext = processContext;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // submit(...), invokeAll(...) and invokeAny(...) all end up here in the submitting thread
+        delegate.execute(processContext.capture(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -1,13 +1,13 @@
 package io.github.jhahnhro.enhancedcdi.context;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger.Level;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link PauseableContext} that starts inactive, allows manual {@link #activate() activation} and keeps track of all
@@ -21,58 +21,93 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * <p>
  * Therefore, threads that activate themselves by calling {@link #activate()} MUST also call {@link #pause()}. Otherwise
  * {@link #close()} will just block forever.
+ * <p>
+ * While it is not active in any thread, the context can be {@link #passivate(PassivationStore) passivated}, i.e. its
+ * serializable contextual instances are moved out of the heap. They are restored transparently by the next
+ * {@link #activate()}, or before they are destroyed by {@link #close()}.
  */
 public abstract class ThreadAwarePauseableContext extends ForwardingContext implements SharedContext, PauseableContext {
     /**
      * Stores the contextual instances of this context.
      */
     private final GlobalContext beanStorage = new GlobalContext(null);
-    private final Map<Thread, CountDownLatch> activeThreads = new WeakHashMap<>();
     /**
-     * Guards against concurrent modification of {@link #activeThreads}, because WeakHashMap isn't thread-safe.
+     * Set iff this context has been activated in the current thread and not paused since.
+     */
+    private final ThreadLocal<Boolean> activeInCurrentThread = new ThreadLocal<>();
+    /**
+     * The number of threads in which this context is currently active. Temporarily offset by
+     * {@link #REFUSING_ACTIVATION} while {@link #refuseActivationIfIdle()} closes this context.
+     */
+    private final AtomicInteger activeThreads = new AtomicInteger();
+    /**
+     * Makes {@link #activeThreads} negative, so that concurrent {@link #activate()} calls fail even before
+     * {@link #closed} is set.
+     */
+    private static final int REFUSING_ACTIVATION = Integer.MIN_VALUE / 2;
+    /**
+     * Released once this context is closed and the last thread has paused it.
+     */
+    private final CountDownLatch allThreadsPaused = new CountDownLatch(1);
+    /**
+     * Is this context closed, i.e. can it no longer be activated?
+     */
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    /**
+     * Set by the one thread that destroys the contextual instances after this context has been closed.
+     */
+    private final AtomicBoolean destroying = new AtomicBoolean(false);
+    /**
+     * Guards {@link #passivatedInstances}.
      */
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Lock readLock = lock.readLock();
-    private final Lock writeLock = lock.writeLock();
+    private final Lock passivationLock = new ReentrantLock();
     /**
-     * Is this context closed?
+     * Set before {@link #passivate(PassivationStore)} checks that no thread is active, and until the instances have
+     * been restored. Conversely, {@link #activate()} counts the thread before checking this flag, so that either the
+     * passivation is aborted or the activation restores the instances.
      */
-    private boolean closed = false;
+    private volatile boolean passivated = false;
+    private GlobalContext.Passivated passivatedInstances;
 
     /**
      * @return {@code true} iff this context has been {@link #activate() activated} for the current thread.
      */
     @Override
     public boolean isActive() {
-        readLock.lock();
-        try {
-            return !closed && activeThreads.containsKey(Thread.currentThread());
-        } finally {
-            readLock.unlock();
-        }
+        return !closed.get() && activeInCurrentThread.get() != null;
     }
 
     @Override
     public boolean activate() {
-        writeLock.lock();
-        try {
-            checkOpen();
-            return activeThreads.putIfAbsent(Thread.currentThread(), new CountDownLatch(1)) == null;
-        } finally {
-            writeLock.unlock();
+        checkOpen();
+        if (activeInCurrentThread.get() != null) {
+            return false;
+        }
+        final boolean refused = activeThreads.incrementAndGet() < 0;
+        activeInCurrentThread.set(Boolean.TRUE);
+        if (refused || closed.get()) {
+            // close() may not have counted this thread, so it must not wait for it either
+            pause();
+            throw new ContextClosedException(this);
+        }
+        if (passivated) {
+            try {
+                restorePassivatedInstances();
+            } catch (IOException | ClassNotFoundException e) {
+                pause();
+                throw new IllegalStateException("Passivated contextual instances could not be restored", e);
+            }
         }
+        return true;
     }
 
     @Override
     public void pause() {
-        writeLock.lock();
-        try {
-            final CountDownLatch latch = activeThreads.remove(Thread.currentThread());
-            if (latch != null) {
-                latch.countDown();
+        if (activeInCurrentThread.get() != null) {
+            activeInCurrentThread.remove();
+            if (activeThreads.decrementAndGet() == 0 && closed.get()) {
+                allThreadsPaused.countDown();
             }
-        } finally {
-            writeLock.unlock();
         }
     }
 
@@ -81,65 +116,134 @@ public abstract class ThreadAwarePauseableContext extends ForwardingContext impl
      * context, then destroys all contextual instances.
      * <p>
      * This context cannot be activated again afterwards.
-     * <p>
-     * Note that during the wait for others threads to become inactive, more threads can call {@link #activate()}. It is
-     * possible that this will starve the current thread.
      */
     @Override
     public void close() {
         // Step 0: deactivate current thread if necessary.
         pause();
 
-        List<CountDownLatch> latches;
+        // Step 1: Prevent anyone from activating this context in more threads than it is already active.
+        closed.set(true);
+        destroyAfterAllThreadsPaused();
+    }
 
-        // Step 1: Lock to prevent anyone from activating this context in more threads than it is already active.
-        writeLock.lock();
-        try {
-            // idempotent
-            if (closed) {
-                return;
-            }
-            closed = true;
+    /**
+     * Closes this context iff it is not active in any thread, atomically with respect to {@link #activate()}: Either
+     * a concurrent activation succeeds and this method returns {@code false}, or the activation fails with a
+     * {@link ContextClosedException}. Unlike {@link #close()}, this method does not destroy the contextual instances,
+     * that is left to the next call to {@link #close()}, which never blocks then.
+     *
+     * @return {@code true} iff this context has been closed by this call.
+     */
+    boolean refuseActivationIfIdle() {
+        if (!activeThreads.compareAndSet(0, REFUSING_ACTIVATION)) {
+            return false;
+        }
+        final boolean closedNow = closed.compareAndSet(false, true);
+        // threads that activated in the meantime have seen a negative count and pause again
+        activeThreads.addAndGet(-REFUSING_ACTIVATION);
+        return closedNow;
+    }
 
-            latches = new ArrayList<>(activeThreads.values());
-            activeThreads.clear();
-        } finally {
-            writeLock.unlock();
+    private void destroyAfterAllThreadsPaused() {
+        // idempotent
+        if (!destroying.compareAndSet(false, true)) {
+            return;
         }
 
-        // Step 2: Wait for all other threads to become inactive by calling #pause. This MUST happen outside the
-        // write-lock, because #pause also needs the write-lock.
-        for (CountDownLatch latch : latches) {
+        // Step 2: Wait for all other threads to become inactive by calling #pause.
+        if (activeThreads.get() > 0) {
             try {
-                latch.await();
+                allThreadsPaused.await();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
-        // Step 3: destroy all beans.
+        // Step 3: destroy all beans, including passivated ones.
+        if (passivated) {
+            try {
+                restorePassivatedInstances();
+            } catch (IOException | ClassNotFoundException e) {
+                System.getLogger(ThreadAwarePauseableContext.class.getName())
+                        .log(Level.WARNING, "Passivated contextual instances could not be restored and destroyed", e);
+            }
+        }
         beanStorage.close();
     }
 
-    @Override
-    public boolean isClosed() {
-        readLock.lock();
+    /**
+     * Moves all contextual instances that are {@link java.io.Serializable}, together with their
+     * {@link jakarta.enterprise.context.spi.CreationalContext}s, to the given store, if this context is not active in
+     * any thread. Other instances stay on the heap.
+     *
+     * @param store where to store the serialized instances
+     * @return {@code true} iff instances have been passivated, {@code false} if this context is active in any thread,
+     * closed, already passivated or has no serializable instances.
+     * @throws UncheckedIOException if the instances cannot be serialized or stored. This context is unchanged then.
+     */
+    public boolean passivate(PassivationStore store) {
+        if (!passivationLock.tryLock()) {
+            return false;
+        }
         try {
-            return closed;
+            if (closed.get() || passivatedInstances != null) {
+                return false;
+            }
+            passivated = true;
+            if (activeThreads.get() > 0) {
+                passivated = false;
+                return false;
+            }
+            passivatedInstances = beanStorage.passivate(store);
+            return passivatedInstances != null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Contextual instances could not be passivated", e);
         } finally {
-            readLock.unlock();
+            if (passivatedInstances == null) {
+                passivated = false;
+            }
+            passivationLock.unlock();
         }
     }
 
-    @Override
-    protected GlobalContext delegate() {
-        readLock.lock();
+    /**
+     * @return {@code true} iff contextual instances of this context are currently passivated.
+     */
+    public boolean isPassivated() {
+        return passivated;
+    }
+
+    private void restorePassivatedInstances() throws IOException, ClassNotFoundException {
+        passivationLock.lock();
         try {
-            checkOpen();
-            // delegate get(Contextual), get(Contextual, CreationalContext) and destroy(Contextual) to beanStorage
-            checkActive();
-            return beanStorage;
+            if (passivatedInstances != null) {
+                beanStorage.restore(passivatedInstances);
+                passivatedInstances = null;
+            }
+            passivated = false;
         } finally {
-            readLock.unlock();
+            passivationLock.unlock();
         }
     }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return {@code true} iff this context is currently active in at least one thread, regardless of the calling
+     * thread.
+     */
+    protected final boolean isActiveInAnyThread() {
+        return activeThreads.get() > 0;
+    }
+
+    @Override
+    protected GlobalContext delegate() {
+        checkOpen();
+        // delegate get(Contextual), get(Contextual, CreationalContext) and destroy(Contextual) to beanStorage
+        checkActive();
+        return beanStorage;
+    }
 }
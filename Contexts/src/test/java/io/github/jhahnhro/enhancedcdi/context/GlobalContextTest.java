@@ -0,0 +1,165 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class GlobalContextTest {
+
+    private final GlobalContext context = new GlobalContext(ApplicationScoped.class);
+
+    @Nested
+    class TestGet {
+
+        @Test
+        void givenNoInstance_whenGetWithoutCreationalContext_thenReturnNull() {
+            assertThat(context.get(TestContextual.ofObjects())).isNull();
+        }
+
+        @Test
+        void givenInstanceCreated_whenGet_thenReturnSameInstance() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+
+            assertThat(context.get(contextual, new TestContextual.SimpleCreationalContext<>())).isSameAs(instance);
+            assertThat(context.get(contextual)).isSameAs(instance);
+            assertThat(contextual.created).hasValue(1);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenConcurrentCalls_whenGet_thenCreateExactlyOnce() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+                }, Thread::startVirtualThread));
+            }
+
+            start.countDown();
+
+            assertThat(futures.stream().map(CompletableFuture::join).distinct()).hasSize(1);
+            assertThat(contextual.created).hasValue(1);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenSlowCreation_whenGetOtherBean_thenDoNotWait() {
+            final CountDownLatch creationStarted = new CountDownLatch(1);
+            final CountDownLatch finishCreation = new CountDownLatch(1);
+            final TestContextual<Object> slow = new TestContextual<>(() -> {
+                creationStarted.countDown();
+                await(finishCreation);
+                return new Object();
+            });
+            final TestContextual<Object> fast = TestContextual.ofObjects();
+            final CompletableFuture<Object> slowInstance = CompletableFuture.supplyAsync(
+                    () -> context.get(slow, new TestContextual.SimpleCreationalContext<>()), Thread::startVirtualThread);
+            await(creationStarted);
+
+            try {
+                assertThat(context.get(fast, new TestContextual.SimpleCreationalContext<>())).isNotNull();
+                assertThat(slowInstance).isNotDone();
+            } finally {
+                finishCreation.countDown();
+            }
+            assertThat(slowInstance.join()).isNotNull();
+        }
+    }
+
+    @Nested
+    class TestDestroy {
+
+        @Test
+        void givenInstance_whenDestroy_thenDestroyItAndCreateNewOneOnNextGet() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+
+            context.destroy(contextual);
+
+            assertThat(contextual.destroyed).containsExactly(instance);
+            assertThat(context.get(contextual)).isNull();
+            assertThat(context.get(contextual, new TestContextual.SimpleCreationalContext<>())).isNotSameAs(instance);
+        }
+
+        @Test
+        void givenInstances_whenDestroyAll_thenDestroyThemButStayActive() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+
+            context.destroyAll();
+
+            assertThat(contextual.destroyed).containsExactly(instance);
+            assertThat(context.isActive()).isTrue();
+            assertThat(context.get(contextual)).isNull();
+        }
+    }
+
+    @Nested
+    class TestClose {
+
+        @Test
+        void givenOpen_thenActiveAndNotClosed() {
+            assertThat(context.isClosed()).isFalse();
+            assertThat(context.isActive()).isTrue();
+        }
+
+        @Test
+        void givenInstances_whenClose_thenDestroyThemAndBecomeInactive() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+
+            context.close();
+
+            assertThat(contextual.destroyed).containsExactly(instance);
+            assertThat(context.isClosed()).isTrue();
+            assertThat(context.isActive()).isFalse();
+        }
+
+        @Test
+        void givenClosed_whenGet_thenThrowContextClosedException() {
+            context.close();
+
+            assertThatThrownBy(() -> context.get(TestContextual.ofObjects())).isInstanceOf(
+                    ContextClosedException.class);
+            assertThatThrownBy(() -> context.get(TestContextual.ofObjects(),
+                                                 new TestContextual.SimpleCreationalContext<>())).isInstanceOf(
+                    ContextClosedException.class);
+        }
+
+        @Test
+        void givenClosed_whenCloseAgain_thenNothingHappens() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            context.close();
+
+            context.close();
+            context.destroyAll();
+
+            assertThat(contextual.destroyed).hasSize(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PassivationStoreTest {
+
+    private static final byte[] DATA = {1, 2, 3, 42};
+
+    @Nested
+    class TestOffHeap {
+
+        @Test
+        void givenWrittenData_whenRead_thenReturnSameData() throws IOException {
+            final PassivationStore.Entry entry = PassivationStore.offHeap().write(DATA);
+
+            assertThat(entry.read()).containsExactly(DATA);
+            assertThat(entry.read()).containsExactly(DATA);
+        }
+
+        @Test
+        void givenWrittenData_whenOriginalArrayChanged_thenReadOriginalData() throws IOException {
+            final byte[] data = DATA.clone();
+            final PassivationStore.Entry entry = PassivationStore.offHeap().write(data);
+
+            data[0] = 0;
+
+            assertThat(entry.read()).containsExactly(DATA);
+        }
+    }
+
+    @Nested
+    class TestDirectory {
+
+        @TempDir
+        Path directory;
+
+        @Test
+        void givenWrittenData_whenRead_thenReturnSameData() throws IOException {
+            final PassivationStore.Entry entry = PassivationStore.directory(directory).write(DATA);
+
+            assertThat(entry.read()).containsExactly(DATA);
+        }
+
+        @Test
+        void givenWrittenData_whenDiscard_thenDeleteFile() throws IOException {
+            final PassivationStore.Entry entry = PassivationStore.directory(directory).write(DATA);
+            assertThat(files()).hasSize(1);
+
+            entry.discard();
+
+            assertThat(files()).isEmpty();
+        }
+
+        @Test
+        void whenWrite_thenOnlyAccessibleByOwner() throws IOException {
+            assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+            PassivationStore.directory(directory).write(DATA);
+
+            final Path file = files().get(0);
+            assertThat(file.getParent()).isNotEqualTo(directory);
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.getParent()))).isEqualTo(
+                    "rwx------");
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file))).isEqualTo("rw-------");
+        }
+
+        @Test
+        void givenMissingDirectory_whenCreateStore_thenThrowIOException() {
+            assertThatThrownBy(() -> PassivationStore.directory(directory.resolve("missing"))).isInstanceOf(
+                    IOException.class);
+        }
+
+        private List<Path> files() throws IOException {
+            try (Stream<Path> files = Files.walk(directory)) {
+                return files.filter(Files::isRegularFile).toList();
+            }
+        }
+    }
+}
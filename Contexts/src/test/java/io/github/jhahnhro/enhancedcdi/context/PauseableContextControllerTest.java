@@ -0,0 +1,164 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class PauseableContextControllerTest {
+
+    private PauseableContext context;
+    private Event<PauseableContext> lifecycleEvent;
+    private final List<Class<?>> firedEvents = new ArrayList<>();
+    private PauseableContextController<PauseableContext> controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        context = mock(PauseableContext.class);
+        doReturn(RequestScoped.class).when(context).getScope();
+        lifecycleEvent = mock(Event.class);
+        when(lifecycleEvent.select(any(Annotation[].class))).then(invocation -> {
+            firedEvents.add(invocation.<Annotation>getArgument(0).annotationType());
+            return lifecycleEvent;
+        });
+        controller = new PauseableContextController<>() {
+            @Override
+            public PauseableContext getContext() {
+                return context;
+            }
+
+            @Override
+            public Event<PauseableContext> lifecycleEvent() {
+                return lifecycleEvent;
+            }
+        };
+    }
+
+    @Nested
+    class TestRunInContext {
+
+        @Test
+        void givenActive_thenRunWithoutLifecycleEvents() {
+            when(context.isActive()).thenReturn(true);
+            final Runnable action = mock(Runnable.class);
+
+            controller.runInContext(action);
+
+            verify(action).run();
+            verify(context, never()).activate();
+            verify(context, never()).pause();
+            assertThat(firedEvents).isEmpty();
+        }
+
+        @Test
+        void givenInactive_thenActivateRunAndPause() {
+            when(context.activate()).thenReturn(true);
+            final Runnable action = mock(Runnable.class);
+
+            controller.runInContext(action);
+
+            final InOrder inOrder = inOrder(context, action);
+            inOrder.verify(context).activate();
+            inOrder.verify(action).run();
+            inOrder.verify(context).pause();
+            assertThat(firedEvents).containsExactly(Initialized.class, BeforePaused.class, Paused.class);
+        }
+
+        @Test
+        void givenActivationFails_thenDoNotRun() {
+            when(context.activate()).thenReturn(false);
+            final Runnable action = mock(Runnable.class);
+
+            controller.runInContext(action);
+
+            verify(action, never()).run();
+            assertThat(firedEvents).isEmpty();
+        }
+    }
+
+    @Nested
+    class TestCallInContext {
+
+        @Test
+        void givenActive_thenCallWithoutLifecycleEvents() throws Exception {
+            when(context.isActive()).thenReturn(true);
+
+            assertThat(controller.callInContext(() -> 42)).isEqualTo(42);
+            verify(context, never()).activate();
+            verify(context, never()).pause();
+            assertThat(firedEvents).isEmpty();
+        }
+
+        @Test
+        void givenInactive_thenActivateCallAndPause() throws Exception {
+            when(context.activate()).thenReturn(true);
+
+            assertThat(controller.callInContext(() -> 42)).isEqualTo(42);
+            final InOrder inOrder = inOrder(context);
+            inOrder.verify(context).activate();
+            inOrder.verify(context).pause();
+            assertThat(firedEvents).containsExactly(Initialized.class, BeforePaused.class, Paused.class);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void givenActivationFails_thenDoNotCall() throws Exception {
+            when(context.activate()).thenReturn(false);
+            final Callable<Integer> action = mock(Callable.class);
+
+            assertThat(controller.callInContext(action)).isNull();
+            verify(action, never()).call();
+            assertThat(firedEvents).isEmpty();
+        }
+
+        @Test
+        void givenActionThrows_thenPauseAnyway() {
+            when(context.activate()).thenReturn(true);
+
+            assertThatThrownBy(() -> controller.callInContext(() -> {
+                throw new IllegalStateException("failed");
+            })).isInstanceOf(IllegalStateException.class);
+            verify(context).pause();
+            assertThat(firedEvents).containsExactly(Initialized.class, BeforePaused.class, Paused.class);
+        }
+    }
+
+    @Nested
+    class TestInContext {
+
+        @Test
+        void givenInactiveInWorkerThread_thenActivateForTaskOnly() throws Exception {
+            when(context.activate()).thenReturn(true);
+
+            assertThat(controller.inContext(() -> 42).call()).isEqualTo(42);
+            verify(context).activate();
+            verify(context).pause();
+            assertThat(firedEvents).isEmpty();
+        }
+
+        @Test
+        void givenAlreadyActiveInWorkerThread_thenKeepActive() {
+            when(context.activate()).thenReturn(false);
+            final Runnable task = mock(Runnable.class);
+
+            controller.inContext(task).run();
+
+            verify(task).run();
+            verify(context, never()).pause();
+        }
+    }
+}
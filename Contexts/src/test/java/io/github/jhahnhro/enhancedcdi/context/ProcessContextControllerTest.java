@@ -0,0 +1,177 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.BeforeDestroyed;
+import jakarta.enterprise.context.Destroyed;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class ProcessContextControllerTest {
+
+    private final ProcessContextController<Integer, ProcessContext.Process<Integer>, ProcessContext<Integer,
+            ProcessContext.Process<Integer>>> controller = ProcessContextController.newProcessContextController(
+            RequestScoped.class);
+    private final List<Class<?>> firedProcessEvents = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        controller.contextLifecycle = mockEvent(new CopyOnWriteArrayList<>());
+        controller.processLifecycle = mockEvent(firedProcessEvents);
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.getContext().getActiveProcess().ifPresent(PauseableContext::pause);
+        controller.closeContext();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Event<T> mockEvent(List<Class<?>> firedEvents) {
+        final Event<T> event = mock(Event.class);
+        when(event.select(any(Annotation[].class))).then(invocation -> {
+            firedEvents.add(invocation.<Annotation>getArgument(0).annotationType());
+            return event;
+        });
+        return event;
+    }
+
+    private ProcessContext.Process<Integer> usedProcess(int key) {
+        final ProcessContext.Process<Integer> process = controller.processController(key).getContext();
+        process.activate();
+        process.pause();
+        return process;
+    }
+
+    @Nested
+    class TestEviction {
+
+        @Test
+        void givenIdleProcess_whenIdleTimeoutExceeded_thenCloseItAndFireLifecycleEvents() {
+            final var process = usedProcess(1);
+
+            controller.evictProcesses(ProcessContextController.EvictionPolicy.idleLongerThan(Duration.ZERO));
+
+            assertThat(process.isClosed()).isTrue();
+            assertThat(controller.getContext().getProcesses()).isEmpty();
+            assertThat(firedProcessEvents).containsExactly(BeforeDestroyed.class, Destroyed.class);
+            assertThat(controller.getEvictionStatistics()).isEqualTo(
+                    new ProcessContextController.EvictionStatistics(1, 0));
+        }
+
+        @Test
+        void givenActiveProcess_whenEvict_thenKeepIt() {
+            final var process = controller.processController(1).getContext();
+            process.activate();
+
+            controller.evictProcesses(ProcessContextController.EvictionPolicy.idleLongerThan(Duration.ZERO));
+
+            assertThat(process.isClosed()).isFalse();
+            assertThat(firedProcessEvents).isEmpty();
+            assertThat(controller.getEvictionStatistics().total()).isZero();
+        }
+
+        @Test
+        void givenTooManyProcesses_whenEvict_thenEvictLeastRecentlyActive() {
+            final var oldest = usedProcess(1);
+            final var middle = usedProcess(2);
+            final var newest = usedProcess(3);
+
+            controller.evictProcesses(new ProcessContextController.EvictionPolicy(null, 1, Duration.ofSeconds(1)));
+
+            assertThat(oldest.isClosed()).isTrue();
+            assertThat(middle.isClosed()).isTrue();
+            assertThat(newest.isClosed()).isFalse();
+            assertThat(controller.getEvictionStatistics()).isEqualTo(
+                    new ProcessContextController.EvictionStatistics(0, 2));
+        }
+
+        @Test
+        void givenEvictedProcess_thenActivationFailsAndKeyGetsNewProcess() {
+            final var process = usedProcess(1);
+
+            controller.evictProcesses(ProcessContextController.EvictionPolicy.idleLongerThan(Duration.ZERO));
+
+            assertThatThrownBy(process::activate).isInstanceOf(ContextClosedException.class);
+            assertThat(controller.processController(1).getContext()).isNotSameAs(process);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenActivationWhileBeforeDestroyedIsFired_whenEvict_thenActivationFails() {
+            final var process = usedProcess(1);
+            final List<Object> activationResults = new CopyOnWriteArrayList<>();
+            when(controller.processLifecycle.select(BeforeDestroyed.Literal.of(RequestScoped.class))).then(
+                    invocation -> {
+                        // another thread tries to use the process after the eviction has checked that it is idle
+                        activationResults.add(CompletableFuture.supplyAsync(() -> {
+                            try {
+                                return process.activate();
+                            } catch (ContextClosedException e) {
+                                return e;
+                            } finally {
+                                process.pause();
+                            }
+                        }).join());
+                        return controller.processLifecycle;
+                    });
+
+            controller.evictProcesses(ProcessContextController.EvictionPolicy.idleLongerThan(Duration.ZERO));
+
+            assertThat(activationResults).singleElement().isInstanceOf(ContextClosedException.class);
+            assertThat(process.isClosed()).isTrue();
+        }
+
+        @Test
+        @Timeout(value = 10, unit = TimeUnit.SECONDS)
+        void givenProcessReactivatedConcurrently_whenEvict_thenNeverDestroyInstancesInUse()
+                throws InterruptedException {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final List<Throwable> failures = new CopyOnWriteArrayList<>();
+            final Thread worker = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    final var process = controller.processController(1).getContext();
+                    try {
+                        process.activate();
+                    } catch (ContextClosedException e) {
+                        // evicted before the activation, the next iteration uses a new process
+                        continue;
+                    }
+                    try {
+                        final Object instance = controller.getContext()
+                                .get(contextual, new TestContextual.SimpleCreationalContext<>());
+                        if (process.isClosed() || contextual.destroyed.contains(instance)) {
+                            failures.add(new AssertionError("process evicted while in use"));
+                        }
+                    } finally {
+                        process.pause();
+                    }
+                }
+            });
+
+            final var policy = ProcessContextController.EvictionPolicy.idleLongerThan(Duration.ZERO);
+            while (worker.isAlive()) {
+                controller.evictProcesses(policy);
+            }
+            worker.join();
+
+            assertThat(failures).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.RequestScoped;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class ProcessContextTest {
+
+    private final ProcessContext<Integer, ProcessContext.Process<Integer>> context = ProcessContext.newProcessContext(
+            RequestScoped.class);
+
+    @AfterEach
+    void tearDown() {
+        context.getActiveProcess().ifPresent(PauseableContext::pause);
+        context.close();
+    }
+
+    @Nested
+    class TestActiveProcess {
+
+        @Test
+        void givenNoProcessActivated_thenContextInactive() {
+            context.getOrCreateProcess(1);
+
+            assertThat(context.isActive()).isFalse();
+            assertThat(context.getActiveProcess()).isEmpty();
+            assertThatThrownBy(() -> context.get(TestContextual.ofObjects())).isInstanceOf(
+                    ContextNotActiveException.class);
+        }
+
+        @Test
+        void givenProcessActivated_thenItIsTheActiveProcess() {
+            final var process = context.getOrCreateProcess(1);
+
+            process.activate();
+
+            assertThat(context.isActive()).isTrue();
+            assertThat(context.getActiveProcess()).containsSame(process);
+        }
+
+        @Test
+        void givenProcessPaused_thenContextInactive() {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+
+            process.pause();
+
+            assertThat(context.isActive()).isFalse();
+            assertThat(context.getActiveProcess()).isEmpty();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenProcessActivatedInOtherThread_thenNotActiveInCurrentThread() throws InterruptedException {
+            final var process = context.getOrCreateProcess(1);
+            final CountDownLatch activated = new CountDownLatch(1);
+            final CountDownLatch checked = new CountDownLatch(1);
+            final Thread other = Thread.ofPlatform().start(() -> {
+                process.activate();
+                activated.countDown();
+                try {
+                    checked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    process.pause();
+                }
+            });
+            try {
+                activated.await();
+
+                assertThat(context.isActive()).isFalse();
+                assertThat(process.idleTime()).isZero();
+            } finally {
+                checked.countDown();
+                other.join();
+            }
+            assertThat(process.idleTime()).isPositive();
+        }
+
+        @Test
+        void givenOtherProcessActive_whenActivate_thenThrowISE() {
+            context.getOrCreateProcess(1).activate();
+            final var other = context.getOrCreateProcess(2);
+
+            assertThatThrownBy(other::activate).isInstanceOf(IllegalStateException.class);
+            assertThat(context.getActiveProcess().map(ProcessContext.Process::getKey)).contains(1);
+        }
+
+        @Test
+        void givenProcessActive_whenActivatingAgain_thenReturnFalse() {
+            final var process = context.getOrCreateProcess(1);
+
+            assertThat(process.activate()).isTrue();
+            assertThat(process.activate()).isFalse();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenActiveProcessClosedByOtherThread_thenContextInactive() throws InterruptedException {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+
+            final Thread closer = Thread.ofPlatform().start(process::close);
+            while (!process.isClosed()) {
+                Thread.onSpinWait();
+            }
+
+            assertThat(context.isActive()).isFalse();
+            assertThat(context.getActiveProcess()).isEmpty();
+            assertThatThrownBy(() -> context.get(TestContextual.ofObjects())).isInstanceOf(
+                    ContextNotActiveException.class);
+
+            // close() waits until the process is paused in this thread
+            process.pause();
+            closer.join();
+        }
+    }
+
+    @Nested
+    class TestContextualInstances {
+
+        @Test
+        void givenSameProcess_whenGetInDifferentThreads_thenSameInstance() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+
+            final Object instanceInOtherThread = CompletableFuture.supplyAsync(() -> {
+                process.activate();
+                try {
+                    return context.get(contextual);
+                } finally {
+                    process.pause();
+                }
+            }).join();
+
+            assertThat(instanceInOtherThread).isSameAs(instance);
+        }
+
+        @Test
+        void givenDifferentProcesses_whenGet_thenDifferentInstances() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final var first = context.getOrCreateProcess(1);
+            final var second = context.getOrCreateProcess(2);
+
+            first.activate();
+            final Object firstInstance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            first.pause();
+            second.activate();
+            final Object secondInstance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            second.pause();
+
+            assertThat(secondInstance).isNotSameAs(firstInstance);
+            assertThat(contextual.created).hasValue(2);
+        }
+    }
+
+    @Nested
+    class TestCapture {
+
+        @Test
+        void givenNoActiveProcess_whenCapture_thenReturnTaskUnchanged() {
+            final Runnable runnable = () -> {};
+            final Callable<Integer> callable = () -> 42;
+            final Function<Integer, Integer> function = x -> x;
+
+            assertThat(context.capture(runnable)).isSameAs(runnable);
+            assertThat(context.capture(callable)).isSameAs(callable);
+            assertThat(context.capture(function)).isSameAs(function);
+        }
+
+        @Test
+        void givenActiveProcess_whenRunInOtherThread_thenProcessActiveOnlyDuringTask() {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+            final Object[] processDuringTask = new Object[1];
+            final Runnable captured = context.capture((Runnable) () -> processDuringTask[0] = context.getActiveProcess()
+                    .orElse(null));
+
+            final boolean activeAfterwards = CompletableFuture.supplyAsync(() -> {
+                captured.run();
+                return context.isActive();
+            }).join();
+
+            assertThat(processDuringTask[0]).isSameAs(process);
+            assertThat(activeAfterwards).isFalse();
+        }
+
+        @Test
+        void givenActiveProcess_whenCallableAndFunctionInOtherThread_thenSeeSameInstances() throws Exception {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            context.getOrCreateProcess(1).activate();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            final Callable<Object> callable = context.capture(() -> context.get(contextual));
+            final Function<Integer, Object> function = context.capture(ignored -> context.get(contextual));
+
+            final Object[] instancesInOtherThread = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new Object[]{callable.call(), function.apply(0)};
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).join();
+
+            assertThat(instancesInOtherThread).containsOnly(instance);
+            assertThat(contextual.created).hasValue(1);
+        }
+
+        @Test
+        void givenProcessAlreadyActiveInExecutingThread_whenRun_thenKeepItActive() {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+
+            context.capture(() -> {}).run();
+
+            assertThat(context.getActiveProcess()).containsSame(process);
+        }
+
+        @Test
+        void givenTaskThrows_whenCall_thenPauseProcessAnyway() {
+            context.getOrCreateProcess(1).activate();
+            final Callable<Object> captured = context.capture(() -> {
+                throw new IllegalStateException("failed");
+            });
+
+            final boolean activeAfterwards = CompletableFuture.supplyAsync(() -> {
+                assertThatThrownBy(captured::call).isInstanceOf(IllegalStateException.class);
+                return context.isActive();
+            }).join();
+
+            assertThat(activeAfterwards).isFalse();
+        }
+    }
+
+    @Nested
+    class TestPropagation {
+
+        private final ExecutorService delegate = Executors.newSingleThreadExecutor();
+
+        @AfterEach
+        void shutdownDelegate() {
+            delegate.shutdownNow();
+        }
+
+        @Test
+        void givenActiveProcess_whenSubmit_thenTaskRunsWithinProcess() throws Exception {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+            final ExecutorService executorService = context.propagating(delegate);
+
+            assertThat(executorService.submit(() -> context.getActiveProcess().orElseThrow()).get()).isSameAs(process);
+            assertThat(delegate.submit(context::isActive).get()).isFalse();
+        }
+
+        @Test
+        void givenActiveProcess_whenInvokeAll_thenAllTasksRunWithinProcess() throws Exception {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+            final ExecutorService executorService = context.propagating(delegate);
+            final Callable<Object> task = () -> context.getActiveProcess().orElseThrow();
+
+            final var futures = executorService.invokeAll(List.of(task, task));
+
+            for (var future : futures) {
+                assertThat(future.get()).isSameAs(process);
+            }
+        }
+
+        @Test
+        void givenActiveProcess_whenSupplyAsync_thenSupplierRunsWithinProcess() {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+
+            final Object processInOtherThread = CompletableFuture.supplyAsync(
+                    () -> context.getActiveProcess().orElseThrow(), context.propagating(delegate)).join();
+
+            assertThat(processInOtherThread).isSameAs(process);
+        }
+
+        @Test
+        void givenNoActiveProcess_whenSubmit_thenTaskRunsOutsideOfProcess() throws Exception {
+            final ExecutorService executorService = context.propagating(delegate);
+
+            assertThat(executorService.submit(context::isActive).get()).isFalse();
+        }
+
+        @Test
+        void whenShutdown_thenDelegateShutDown() throws InterruptedException {
+            final ExecutorService executorService = context.propagating(delegate);
+            final AtomicBoolean ran = new AtomicBoolean();
+            executorService.execute(() -> ran.set(true));
+
+            executorService.shutdown();
+
+            assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(delegate.isTerminated()).isTrue();
+            assertThat(executorService.isShutdown()).isTrue();
+            assertThat(ran).isTrue();
+        }
+    }
+
+    @Nested
+    class TestRegistry {
+
+        @Test
+        void givenExistingProcess_whenGetOrCreate_thenReturnSameProcess() {
+            final var process = context.getOrCreateProcess(1);
+
+            assertThat(context.getOrCreateProcess(1)).isSameAs(process);
+            assertThat(context.getProcesses()).containsExactly(process);
+        }
+
+        @Test
+        void givenProcessClosed_whenGetOrCreate_thenReturnNewProcess() {
+            final var process = context.getOrCreateProcess(1);
+            process.close();
+
+            assertThat(context.getProcesses()).isEmpty();
+            assertThat(context.getOrCreateProcess(1)).isNotSameAs(process);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenConcurrentCallsWithSameKey_whenGetOrCreate_thenReturnSameProcess() {
+            final List<CompletableFuture<ProcessContext.Process<Integer>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> context.getOrCreateProcess(1)));
+            }
+
+            assertThat(futures.stream().map(CompletableFuture::join).distinct()).hasSize(1);
+        }
+
+        @Test
+        void givenManyProcesses_whenClose_thenCloseAllOfThem() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final List<ProcessContext.Process<Integer>> processes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                final var process = context.getOrCreateProcess(i);
+                process.activate();
+                context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+                process.pause();
+                processes.add(process);
+            }
+
+            // used to throw ConcurrentModificationException, because each process removed itself from the registry
+            context.close();
+
+            assertThat(processes).allMatch(CloseableContext::isClosed);
+            assertThat(context.getProcesses()).isEmpty();
+            assertThat(contextual.destroyed).hasSize(10);
+        }
+
+        @Test
+        void givenContextClosed_whenGetOrCreate_thenThrowContextClosedException() {
+            context.close();
+
+            assertThatThrownBy(() -> context.getOrCreateProcess(1)).isInstanceOf(ContextClosedException.class);
+        }
+    }
+
+    @Nested
+    class TestConcurrentClose {
+
+        private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        @AfterEach
+        void shutdownExecutor() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenIdleProcesses_whenClose_thenCloseAllOfThem() throws InterruptedException {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final List<ProcessContext.Process<Integer>> processes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                final var process = context.getOrCreateProcess(i);
+                process.activate();
+                context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+                process.pause();
+                processes.add(process);
+            }
+
+            assertThat(context.close(executor, Duration.ofSeconds(5))).isEmpty();
+
+            assertThat(processes).allMatch(CloseableContext::isClosed);
+            assertThat(contextual.destroyed).hasSize(10);
+            assertThat(context.isClosed()).isTrue();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenProcessActiveInCurrentThread_whenClose_thenPauseAndCloseIt() throws InterruptedException {
+            final var process = context.getOrCreateProcess(1);
+            process.activate();
+
+            assertThat(context.close(executor, Duration.ofSeconds(5))).isEmpty();
+
+            assertThat(process.isClosed()).isTrue();
+            assertThat(context.getActiveProcess()).isEmpty();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenProcessBusyInOtherThread_whenClose_thenReturnItAfterTimeoutAndCloseItLater()
+                throws InterruptedException {
+            final var busy = context.getOrCreateProcess(1);
+            final var idle = context.getOrCreateProcess(2);
+            final CountDownLatch activated = new CountDownLatch(1);
+            final CountDownLatch pause = new CountDownLatch(1);
+            final Thread other = Thread.ofPlatform().start(() -> {
+                busy.activate();
+                activated.countDown();
+                try {
+                    pause.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    busy.pause();
+                }
+            });
+            try {
+                activated.await();
+
+                assertThat(context.close(executor, Duration.ofMillis(100))).containsExactly(busy);
+                assertThat(idle.isClosed()).isTrue();
+            } finally {
+                pause.countDown();
+                other.join();
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        @Test
+        void givenExecutorRejectsTasks_whenClose_thenReturnAllProcesses() throws InterruptedException {
+            final var process = context.getOrCreateProcess(1);
+            executor.shutdown();
+
+            assertThat(context.close(executor, Duration.ofSeconds(1))).containsExactly(process);
+            assertThat(context.isClosed()).isTrue();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenParallelism_whenClose_thenCloseAllProcesses() throws InterruptedException {
+            final List<ProcessContext.Process<Integer>> processes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                processes.add(context.getOrCreateProcess(i));
+            }
+
+            assertThat(context.close(2, Duration.ofSeconds(5))).isEmpty();
+
+            assertThat(processes).allMatch(CloseableContext::isClosed);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.spi.Contextual;
+import jakarta.enterprise.context.spi.CreationalContext;
+
+/**
+ * A {@link Contextual} that records which instances it has created and destroyed.
+ */
+class TestContextual<T> implements Contextual<T> {
+    private final Supplier<T> factory;
+    final AtomicInteger created = new AtomicInteger();
+    final List<T> destroyed = new CopyOnWriteArrayList<>();
+
+    TestContextual(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    static TestContextual<Object> ofObjects() {
+        return new TestContextual<>(Object::new);
+    }
+
+    @Override
+    public T create(CreationalContext<T> creationalContext) {
+        created.incrementAndGet();
+        return factory.get();
+    }
+
+    @Override
+    public void destroy(T instance, CreationalContext<T> creationalContext) {
+        destroyed.add(instance);
+    }
+
+    /**
+     * A {@link CreationalContext} without dependent objects that can be passivated.
+     */
+    static class SimpleCreationalContext<T> implements CreationalContext<T>, Serializable {
+        @Override
+        public void push(T incompleteInstance) {
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
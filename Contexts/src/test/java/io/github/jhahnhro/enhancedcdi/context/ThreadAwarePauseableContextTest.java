@@ -0,0 +1,371 @@
+package io.github.jhahnhro.enhancedcdi.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.RequestScoped;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+class ThreadAwarePauseableContextTest {
+
+    private final ThreadAwarePauseableContext context = new ThreadAwarePauseableContext() {
+        @Override
+        public Class<? extends Annotation> getScope() {
+            return RequestScoped.class;
+        }
+    };
+
+    /**
+     * Starts a thread that activates the context, waits until {@code pause} is released and pauses the context again.
+     */
+    private Thread startActiveThread(CountDownLatch activated, CountDownLatch pause) {
+        return Thread.ofPlatform().start(() -> {
+            context.activate();
+            activated.countDown();
+            try {
+                pause.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                context.pause();
+            }
+        });
+    }
+
+    @Nested
+    class TestActivation {
+
+        @Test
+        void givenNewContext_thenInactive() {
+            assertThat(context.isActive()).isFalse();
+            assertThatThrownBy(() -> context.get(TestContextual.ofObjects())).isInstanceOf(
+                    ContextNotActiveException.class);
+        }
+
+        @Test
+        void givenActivated_thenActiveOnlyInCurrentThread() throws InterruptedException {
+            assertThat(context.activate()).isTrue();
+
+            final boolean[] activeInOtherThread = new boolean[1];
+            final Thread other = Thread.ofPlatform().start(() -> activeInOtherThread[0] = context.isActive());
+            other.join();
+
+            assertThat(context.isActive()).isTrue();
+            assertThat(activeInOtherThread[0]).isFalse();
+        }
+
+        @Test
+        void givenActive_whenActivatingAgain_thenReturnFalse() {
+            context.activate();
+
+            assertThat(context.activate()).isFalse();
+        }
+
+        @Test
+        void givenActivatedTwice_whenPausedOnce_thenInactive() {
+            context.activate();
+            context.activate();
+
+            context.pause();
+
+            assertThat(context.isActive()).isFalse();
+            assertThat(context.isActiveInAnyThread()).isFalse();
+        }
+
+        @Test
+        void givenNotActive_whenPause_thenNothingHappens() {
+            context.pause();
+
+            assertThat(context.isActiveInAnyThread()).isFalse();
+        }
+
+        @Test
+        void givenClosed_whenActivate_thenThrowContextClosedException() {
+            context.close();
+
+            assertThatThrownBy(context::activate).isInstanceOf(ContextClosedException.class);
+            assertThat(context.isActiveInAnyThread()).isFalse();
+        }
+    }
+
+    @Nested
+    class TestClose {
+
+        @Test
+        void givenActiveInCurrentThread_whenClose_thenPauseAndDestroyInstances() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            context.activate();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+
+            context.close();
+
+            assertThat(context.isActive()).isFalse();
+            assertThat(context.isClosed()).isTrue();
+            assertThat(contextual.destroyed).containsExactly(instance);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenActiveInOtherThreads_whenClose_thenWaitUntilAllPaused() throws InterruptedException {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            final CountDownLatch activated = new CountDownLatch(2);
+            final CountDownLatch pause = new CountDownLatch(1);
+            final List<Thread> threads = List.of(startActiveThread(activated, pause),
+                                                 startActiveThread(activated, pause));
+            activated.await();
+            context.activate();
+            context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            context.pause();
+
+            final Thread closer = Thread.ofPlatform().start(context::close);
+            while (!context.isClosed()) {
+                Thread.onSpinWait();
+            }
+            assertThat(closer.isAlive()).isTrue();
+            assertThat(contextual.destroyed).isEmpty();
+
+            // used to deadlock, because close() discarded the latches the pausing threads had to release
+            pause.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            closer.join();
+
+            assertThat(contextual.destroyed).hasSize(1);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenClosedConcurrently_whenActivate_thenEitherCloseWaitsOrActivationFails() throws InterruptedException {
+            final CountDownLatch pause = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                threads.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        context.activate();
+                    } catch (ContextClosedException e) {
+                        return;
+                    }
+                    try {
+                        pause.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        context.pause();
+                    }
+                }));
+            }
+
+            final Thread closer = Thread.ofPlatform().start(context::close);
+            pause.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            closer.join();
+
+            assertThat(context.isClosed()).isTrue();
+            assertThat(context.isActiveInAnyThread()).isFalse();
+        }
+
+        @Test
+        void givenActive_whenRefuseActivationIfIdle_thenStayOpen() {
+            context.activate();
+
+            assertThat(context.refuseActivationIfIdle()).isFalse();
+            assertThat(context.isClosed()).isFalse();
+            assertThat(context.isActive()).isTrue();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenIdle_whenRefuseActivationIfIdle_thenActivationFailsAndCloseDoesNotBlock() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            context.activate();
+            final Object instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            context.pause();
+
+            assertThat(context.refuseActivationIfIdle()).isTrue();
+            assertThatThrownBy(context::activate).isInstanceOf(ContextClosedException.class);
+            assertThat(contextual.destroyed).isEmpty();
+
+            context.close();
+
+            assertThat(contextual.destroyed).containsExactly(instance);
+            assertThat(context.refuseActivationIfIdle()).isFalse();
+        }
+
+        @Test
+        @Timeout(value = 10, unit = TimeUnit.SECONDS)
+        void givenConcurrentActivations_whenRefuseActivationIfIdle_thenNeverCloseWhileActive()
+                throws InterruptedException {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            context.activate();
+            context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            context.pause();
+            final List<Throwable> failures = new CopyOnWriteArrayList<>();
+            final Thread worker = Thread.ofPlatform().start(() -> {
+                while (true) {
+                    try {
+                        context.activate();
+                    } catch (ContextClosedException e) {
+                        return;
+                    }
+                    try {
+                        context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+                        if (context.isClosed()) {
+                            failures.add(new AssertionError("closed while active"));
+                        }
+                    } finally {
+                        context.pause();
+                    }
+                }
+            });
+
+            while (!context.refuseActivationIfIdle()) {
+                Thread.onSpinWait();
+            }
+            worker.join();
+            context.close();
+
+            assertThat(failures).isEmpty();
+            assertThat(contextual.destroyed).hasSize(1);
+        }
+
+        @Test
+        void givenClosed_whenCloseAgain_thenNothingHappens() {
+            final TestContextual<Object> contextual = TestContextual.ofObjects();
+            context.activate();
+            context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            context.close();
+
+            context.close();
+
+            assertThat(contextual.destroyed).hasSize(1);
+        }
+    }
+
+    @Nested
+    class TestPassivation {
+
+        @TempDir
+        Path directory;
+
+        private final TestContextual<SerializableBean> contextual = new TestContextual<>(
+                () -> new SerializableBean("state"));
+
+        private SerializableBean createInstance() {
+            context.activate();
+            final SerializableBean instance = context.get(contextual, new TestContextual.SimpleCreationalContext<>());
+            context.pause();
+            return instance;
+        }
+
+        @Test
+        void givenOffHeapStore_whenPassivateAndActivate_thenRestoreInstance() {
+            final SerializableBean instance = createInstance();
+
+            assertThat(context.passivate(PassivationStore.offHeap())).isTrue();
+            assertThat(context.isPassivated()).isTrue();
+            context.activate();
+
+            assertThat(context.isPassivated()).isFalse();
+            assertThat(context.get(contextual)).isEqualTo(instance).isNotSameAs(instance);
+            assertThat(contextual.created).hasValue(1);
+        }
+
+        @Test
+        void givenDirectoryStore_whenPassivateAndActivate_thenRestoreInstanceAndDeleteFile() throws IOException {
+            final SerializableBean instance = createInstance();
+
+            assertThat(context.passivate(PassivationStore.directory(directory))).isTrue();
+            assertThat(files()).hasSize(1);
+            context.activate();
+
+            assertThat(context.get(contextual)).isEqualTo(instance);
+            assertThat(files()).isEmpty();
+        }
+
+        @Test
+        void givenPassivated_whenClose_thenRestoreAndDestroyInstance() {
+            final SerializableBean instance = createInstance();
+            context.passivate(PassivationStore.offHeap());
+
+            context.close();
+
+            assertThat(contextual.destroyed).containsExactly(instance);
+        }
+
+        @Test
+        void givenActive_whenPassivate_thenDoNothing() {
+            createInstance();
+            context.activate();
+
+            assertThat(context.passivate(PassivationStore.offHeap())).isFalse();
+            assertThat(context.isPassivated()).isFalse();
+        }
+
+        @Test
+        void givenOnlyNonSerializableInstances_whenPassivate_thenDoNothing() {
+            final TestContextual<Object> nonSerializable = TestContextual.ofObjects();
+            context.activate();
+            final Object instance = context.get(nonSerializable, new TestContextual.SimpleCreationalContext<>());
+            context.pause();
+
+            assertThat(context.passivate(PassivationStore.offHeap())).isFalse();
+            context.activate();
+            assertThat(context.get(nonSerializable)).isSameAs(instance);
+        }
+
+        @Test
+        void givenTamperedData_whenActivate_thenRejectClassesThatWereNotSerialized() {
+            createInstance();
+            final PassivationStore tamperingStore = data -> new PassivationStore.Entry() {
+                @Override
+                public byte[] read() throws IOException {
+                    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                        out.writeObject(new Object[]{new Date(), new TestContextual.SimpleCreationalContext<>()});
+                    }
+                    return bytes.toByteArray();
+                }
+
+                @Override
+                public void discard() {
+                }
+            };
+            context.passivate(tamperingStore);
+
+            assertThatThrownBy(context::activate).isInstanceOf(IllegalStateException.class)
+                    .hasCauseInstanceOf(InvalidClassException.class);
+            assertThat(context.isActive()).isFalse();
+        }
+
+        private List<Path> files() throws IOException {
+            try (Stream<Path> files = Files.walk(directory)) {
+                return files.filter(Files::isRegularFile).toList();
+            }
+        }
+    }
+
+    record SerializableBean(String state) implements Serializable {}
+}
@@ -3,11 +3,16 @@ package io.github.jhahnhro.enhancedcdi.events;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import io.github.jhahnhro.enhancedcdi.metadata.InjectionPointImpl;
 import io.github.jhahnhro.enhancedcdi.types.ParameterizedTypeImpl;
 import io.github.jhahnhro.enhancedcdi.types.TypeVariableResolver;
+import io.github.jhahnhro.enhancedcdi.util.CacheStatistics;
 import jakarta.enterprise.context.Dependent;
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.inject.Typed;
@@ -23,7 +28,16 @@ import jakarta.inject.Inject;
 @Dependent
 @Typed(EnhancedEvent.class)
 public final class EnhancedEvent<T> extends AbstractEventDecorator<T> {
+    private static final int MAX_CACHED_SELECTIONS = 32;
+
     private final BeanManager beanManager;
+    /**
+     * The children returned by {@link #selectUnchecked(Type, Annotation...)}, at most
+     * {@value MAX_CACHED_SELECTIONS}.
+     */
+    private final Map<Selection, EnhancedEvent<?>> selections = new ConcurrentHashMap<>();
+    private final LongAdder selectionHits = new LongAdder();
+    private final LongAdder selectionMisses = new LongAdder();
 
     @Inject
     EnhancedEvent(BeanManager beanManager, InjectionPoint injectionPoint) {
@@ -78,19 +92,51 @@ public final class EnhancedEvent<T> extends AbstractEventDecorator<T> {
      *                                  contain two instances of the same non-repeating qualifier type, or an instance
      *                                  of an annotation that is not a qualifier type
      */
+    @SuppressWarnings("unchecked")
     public <U extends T> EnhancedEvent<U> selectUnchecked(final Type subtype, Annotation... qualifiers) {
+        final Selection selection = new Selection(subtype, List.of(qualifiers));
+        final EnhancedEvent<?> cached = selections.get(selection);
+        if (cached != null) {
+            selectionHits.increment();
+            return (EnhancedEvent<U>) cached;
+        }
+        selectionMisses.increment();
+
         delegate.select(qualifiers); // throws IllegalArgumentException when illegal qualifiers are used
 
-        Set<Type> types = TypeVariableResolver.withKnownTypesOf(subtype).resolvedTypeClosure(subtype);
+        Set<Type> types = TypeVariableResolver.resolvedTypeClosureOf(subtype);
         if (!types.contains(this.eventMetadata.getType())) {
             throw new IllegalArgumentException(subtype + " is not a subtype of " + this.eventMetadata.getType());
         }
 
-        return new EnhancedEvent<>(beanManager, createNewMetadata(subtype, qualifiers));
+        final EnhancedEvent<U> child = new EnhancedEvent<>(beanManager, createNewMetadata(subtype, qualifiers));
+        if (selections.size() < MAX_CACHED_SELECTIONS) {
+            final EnhancedEvent<?> previous = selections.putIfAbsent(selection, child);
+            if (previous != null) {
+                return (EnhancedEvent<U>) previous;
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Returns how often {@link #selectUnchecked(Type, Annotation...)} on this event returned a previously selected
+     * child event, and how often it had to create a new one.
+     *
+     * @return the statistics of the cache of selected child events.
+     */
+    public CacheStatistics getSelectionStatistics() {
+        return new CacheStatistics(selectionHits.sum(), selectionMisses.sum());
     }
 
     @Override
     protected <U extends T> EnhancedEvent<U> decorate(Event<U> delegate, EventMetadata eventMetadata) {
         return new EnhancedEvent<>(beanManager, delegate, eventMetadata);
     }
+
+    /**
+     * The qualifiers are kept in the given order and with duplicates, so that illegal qualifiers never match a cached
+     * selection and are still rejected by the delegate.
+     */
+    private record Selection(Type type, List<Annotation> qualifiers) {}
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package io.github.jhahnhro.enhancedcdi.pooled;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
@@ -7,6 +8,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Provides a basic implementation of {@link #apply(ThrowingFunction)} using a semaphore to block.
@@ -15,6 +17,11 @@ import java.util.concurrent.locks.Lock;
  */
 public abstract class AbstractBlockingPool<T> implements BlockingPool<T> {
     private final Lock poolLock;
+    /**
+     * Held while the whole pool is locked and while the capacity is reduced, so that the {@link InternalLock} always
+     * acquires and releases as many permits as the pool currently has.
+     */
+    private final ReentrantLock capacityGuard;
     /**
      * A semaphore limiting the access to the pooled objects.
      */
@@ -42,6 +49,7 @@ public abstract class AbstractBlockingPool<T> implements BlockingPool<T> {
             throw new IllegalArgumentException("capacity must not be negative");
         }
         this.permissionToUseItem = new Semaphore(capacity, true);
+        this.capacityGuard = new ReentrantLock();
         this.poolLock = new InternalLock();
         this.closed = new AtomicBoolean(false);
         this.closingFinished = new CountDownLatch(1);
@@ -111,12 +119,15 @@ public abstract class AbstractBlockingPool<T> implements BlockingPool<T> {
     }
 
     private T acquireItem() throws InterruptedException {
-        permissionToUseItem.acquire();
+        final Duration waitingTime = acquirePermit();
         if (closed.get()) {
             permissionToUseItem.release();
             throw new IllegalStateException("BlockingPool closed.");
         }
         try {
+            if (waitingTime != null) {
+                afterWaitingForItem(waitingTime);
+            }
             return Objects.requireNonNull(borrowFromPool());
         } catch (InterruptedException | RuntimeException e) {
             permissionToUseItem.release();
@@ -124,6 +135,30 @@ public abstract class AbstractBlockingPool<T> implements BlockingPool<T> {
         }
     }
 
+    /**
+     * @return how long the current thread had to wait for the permit, or {@code null} if it was available immediately.
+     */
+    private Duration acquirePermit() throws InterruptedException {
+        // unlike tryAcquire(), a timeout of zero respects the fairness of the semaphore
+        if (permissionToUseItem.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+        final long start = System.nanoTime();
+        permissionToUseItem.acquire();
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Called when {@link #apply(ThrowingFunction)} had to wait because all items were in use, right after it has
+     * obtained the permission to use an item. Must not block, in particular, it must not {@link #getLock() lock} the
+     * pool.
+     *
+     * @param waitingTime how long the caller had to wait.
+     * @implNote The default implementation does nothing.
+     */
+    protected void afterWaitingForItem(Duration waitingTime) {
+    }
+
     /**
      * Called when {@link #apply(ThrowingFunction)} obtains the item from the pool which will be passed to the action.
      * <p>
@@ -170,6 +205,79 @@ public abstract class AbstractBlockingPool<T> implements BlockingPool<T> {
         returnToPool(item);
     }
 
+    /**
+     * Runs the given action while holding one of the pool's permits, i.e. for the duration of the action the pool
+     * behaves as if one more item was in use. This allows subclasses to perform maintenance on a single item outside
+     * of {@link #apply(ThrowingFunction)}, e.g. to temporarily take it out of the pool and put it back afterwards,
+     * without exceeding the pool's capacity and without running concurrently with {@link #onClose()} or a resize.
+     * <p>
+     * This method never blocks. If no permit is currently available or the pool is already closed, it does nothing.
+     * It does not barge ahead of borrowers that are already waiting for a permit either, so maintenance never delays
+     * them.
+     *
+     * @param action the maintenance action
+     * @return {@code true} iff the action was run.
+     */
+    protected final boolean tryRunWithPermit(Runnable action) {
+        try {
+            // unlike tryAcquire(), a timeout of zero respects the fairness of the semaphore
+            if (!permissionToUseItem.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            if (closed.get()) {
+                return false;
+            }
+            action.run();
+            return true;
+        } finally {
+            permissionToUseItem.release();
+        }
+    }
+
+    /**
+     * Lowers the capacity of this pool without {@link #getLock() locking} it, by taking permits that are currently not
+     * in use out of circulation. Unlike {@link ResizeMixin#resize(int)}, this method neither waits for items in use nor
+     * delays borrowers: It does nothing if not enough permits are available right now, if borrowers are already waiting
+     * for a permit, or if the pool is locked or closed.
+     * <p>
+     * The subclass is responsible for not keeping more items than the new capacity.
+     *
+     * @param newCapacity the new capacity. Must be positive.
+     * @return {@code true} iff the capacity was lowered.
+     * @throws IllegalArgumentException if {@code newCapacity <= 0}
+     */
+    protected final boolean tryReduceCapacity(int newCapacity) {
+        if (newCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive.");
+        }
+        if (!capacityGuard.tryLock()) {
+            return false;
+        }
+        try {
+            final int excess = capacity - newCapacity;
+            if (excess <= 0 || closed.get()) {
+                return false;
+            }
+            // unlike tryAcquire(int), a timeout of zero respects the fairness of the semaphore
+            if (!permissionToUseItem.tryAcquire(excess, 0, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            // the acquired permits are never released again
+            capacity = newCapacity;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            capacityGuard.unlock();
+        }
+    }
+
     @Override
     public final void close() {
         if (closed.compareAndSet(false, true)) {
@@ -244,87 +352,69 @@ public abstract class AbstractBlockingPool<T> implements BlockingPool<T> {
 
     private class InternalLock implements Lock {
 
-        /**
-         * The owner of this lock. Will only be updated by the thread that holds all the permits.
-         */
-        @SuppressWarnings("java:S3077") // Sonar warns that just using "volatile" may not be enough for thread-safety
-        private volatile Thread owner = null;
-        /**
-         * Invariants: {@code holdCount == 0} iff {@code owner == null} and {@code holdCount > 0} iff
-         * {@code owner != null}
-         * <p>
-         * Only the owning thread ever updates this value while having all the permits.
-         */
-        private int holdCount = 0;
-
         @Override
         public void lock() {
-            if (this.owner == Thread.currentThread()) {
-                lockedAgain();
-            } else {
+            capacityGuard.lock();
+            if (capacityGuard.getHoldCount() == 1) {
                 permissionToUseItem.acquireUninterruptibly(capacity);
-                newlyLocked();
             }
         }
 
         @Override
         public void lockInterruptibly() throws InterruptedException {
-            if (this.owner == Thread.currentThread()) {
-                lockedAgain();
-            } else {
-                permissionToUseItem.acquire(capacity);
-                newlyLocked();
+            capacityGuard.lockInterruptibly();
+            if (capacityGuard.getHoldCount() == 1) {
+                try {
+                    permissionToUseItem.acquire(capacity);
+                } catch (InterruptedException e) {
+                    capacityGuard.unlock();
+                    throw e;
+                }
             }
         }
 
         @Override
         public boolean tryLock() {
-            if (this.owner == Thread.currentThread()) {
-                lockedAgain();
-                return true;
-            } else {
-                final boolean acquired = permissionToUseItem.tryAcquire(capacity);
-                if (acquired) {
-                    newlyLocked();
-                }
-                return acquired;
+            if (!capacityGuard.tryLock()) {
+                return false;
+            }
+            if (capacityGuard.getHoldCount() == 1 && !permissionToUseItem.tryAcquire(capacity)) {
+                capacityGuard.unlock();
+                return false;
             }
+            return true;
         }
 
         @Override
         public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
-            if (this.owner == Thread.currentThread()) {
-                lockedAgain();
-                return true;
-            } else {
-                final boolean acquired = permissionToUseItem.tryAcquire(capacity, time, unit);
-                if (acquired) {
-                    newlyLocked();
+            final long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!capacityGuard.tryLock(time, unit)) {
+                return false;
+            }
+            if (capacityGuard.getHoldCount() == 1) {
+                try {
+                    if (!permissionToUseItem.tryAcquire(capacity, deadline - System.nanoTime(),
+                                                        TimeUnit.NANOSECONDS)) {
+                        capacityGuard.unlock();
+                        return false;
+                    }
+                } catch (InterruptedException e) {
+                    capacityGuard.unlock();
+                    throw e;
                 }
-                return acquired;
             }
+            return true;
         }
 
         @Override
         public void unlock() {
-            if (this.owner == Thread.currentThread()) {
-                this.holdCount--;
-                if (this.holdCount == 0) {
-                    this.owner = null;
-                    permissionToUseItem.release(capacity);
-                }
-            } else {
+            if (!capacityGuard.isHeldByCurrentThread()) {
                 throw new IllegalMonitorStateException();
             }
-        }
-
-        private void lockedAgain() {
-            this.holdCount++;
-        }
-
-        private void newlyLocked() {
-            this.owner = Thread.currentThread();
-            this.holdCount = 1;
+            if (capacityGuard.getHoldCount() == 1) {
+                permissionToUseItem.release(capacity);
+            }
+            capacityGuard.unlock();
         }
 
         @Override
@@ -9,13 +9,21 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An implementation of {@link BlockingPool} that creates items lazily on-demand if the capacity of this pool has not
  * yet been reached.
+ * <p>
+ * If the {@link Lifecycle#adaptiveSizing() lifecycle} asks for it, the capacity follows the load: It grows when
+ * borrowers have to wait too long and shrinks again to the number of remaining items when idle items are retired
+ * after their {@link Lifecycle#keepAlive() keep-alive time}.
  *
  * @param <T> type of pooled objects
  */
@@ -25,6 +33,20 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
     private final Lifecycle<T> itemLifecycle;
     private final ScheduledExecutorService executorService;
     private final Duration keepAliveTime;
+    private final ValidationPolicy validationPolicy;
+    /**
+     * {@code null} if the capacity is fixed.
+     */
+    private final AdaptiveSizing adaptiveSizing;
+    /**
+     * The capacity the pool was created with (but at least one), adaptive sizing never shrinks it below that.
+     */
+    private final int minCapacity;
+    private final AtomicBoolean growthScheduled = new AtomicBoolean(false);
+    /**
+     * The number of items that currently exist, whether in use or not.
+     */
+    private final AtomicInteger itemCount = new AtomicInteger();
     /**
      * The items that are not currently in use inside {@link #apply(ThrowingFunction)}
      */
@@ -41,8 +63,11 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
      * @param itemLifecycle the lifecycle of items, defining how they are created and destroyed and if they are still
      *                      usable.
      * @throws NullPointerException     if {@code itemLifecycle} is {@code null}.
-     * @throws IllegalArgumentException if {@code 0<=initialSize<=capacity} is violated or
-     *                                  {@code itemLifecycle.keepAlive()} is negative.
+     * @throws IllegalArgumentException if {@code 0<=initialSize<=capacity} is violated,
+     *                                  {@code itemLifecycle.keepAlive()} is negative or
+     *                                  {@code itemLifecycle.adaptiveSizing()} has a maximum capacity less than
+     *                                  {@code capacity}.
+     * @throws NullPointerException     if {@code itemLifecycle.validationPolicy()} is {@code null}.
      * @throws InterruptedException     if the current thread is interrupted while waiting for the pool to fill to its
      *                                  initial size. Will not happen if {@code initialSize == 0}.
      */
@@ -63,24 +88,30 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
             throw new IllegalArgumentException("initialSize must not be negative");
         }
         this.itemLifecycle = Objects.requireNonNull(itemLifecycle);
+        this.clock = Objects.requireNonNull(clock);
 
         this.keepAliveTime = itemLifecycle.keepAlive().orElse(null);
         if (keepAliveTime != null && keepAliveTime.isNegative()) {
             throw new IllegalArgumentException("keepAlive must not be negative");
         }
+        this.validationPolicy = Objects.requireNonNull(itemLifecycle.validationPolicy());
+        this.adaptiveSizing = itemLifecycle.adaptiveSizing().orElse(null);
+        if (adaptiveSizing != null && adaptiveSizing.maxCapacity() < capacity) {
+            throw new IllegalArgumentException("maxCapacity must not be less than capacity");
+        }
+        this.minCapacity = Math.max(1, capacity);
 
         this.executorService = Executors.newSingleThreadScheduledExecutor();
 
         this.itemsNotInUse = new ArrayBlockingQueue<>(capacity);
         this.resizeMixin = new ResizeMixin();
         prefillPool(initialSize);
-
-        this.clock = Objects.requireNonNull(clock);
+        scheduleBackgroundValidation();
     }
 
     private void prefillPool(int initialSize) throws InterruptedException {
         for (int i = 0; i < initialSize; i++) {
-            itemsNotInUse.add(new ItemAndCreationTime<>(itemLifecycle.createNew(), clock.instant()));
+            itemsNotInUse.add(new ItemAndCreationTime<>(createItem(), clock.instant()));
         }
         if (initialSize > 0) {
             scheduleNextHousekeeping();
@@ -93,35 +124,143 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
         }
     }
 
-    private void retireOldItems() {
+    // package-private to run housekeeping synchronously in tests
+    void retireOldItems() {
         Instant now = clock.instant();
         Instant cutoff = now.minus(keepAliveTime);
 
-        itemsNotInUse.removeIf(x -> {
+        int retired = 0;
+        for (var iterator = itemsNotInUse.iterator(); iterator.hasNext(); ) {
+            final ItemAndCreationTime<T> x = iterator.next();
             if (x.createdAt().isBefore(cutoff)) {
-                itemLifecycle.destroy(x.item());
-                return true;
-            } else {
-                return false;
+                iterator.remove();
+                destroyItem(x.item());
+                retired++;
             }
-        });
+        }
+
+        if (adaptiveSizing != null) {
+            if (retired > 0) {
+                // the pool had more items than it needed, so give up the slots that are no longer backed by an item.
+                // This does not lock the pool, so borrowers never wait for it and the waiting times that make the pool
+                // grow are not affected.
+                final int newCapacity = Math.max(minCapacity, itemCount.get());
+                if (newCapacity < capacity()) {
+                    tryReduceCapacity(newCapacity);
+                }
+            }
+            // borrowers may have created items after the item count was read
+            retireSurplusItems();
+        }
+    }
+
+    /**
+     * Destroys idle items while there are more items than the capacity allows, which happens if borrowers created
+     * items while the capacity was being reduced. Items in use are left alone, they are only more than the capacity if
+     * idle items exist as well.
+     */
+    private void retireSurplusItems() {
+        ItemAndCreationTime<T> x;
+        while (itemCount.get() > capacity() && null != (x = itemsNotInUse.poll())) {
+            destroyItem(x.item());
+        }
+    }
+
+    /**
+     * Waits until the housekeeping tasks that have already been submitted for immediate execution, i.e. growing the
+     * pool, have completed. Used in tests.
+     */
+    void awaitHousekeeping() throws InterruptedException, ExecutionException {
+        executorService.submit(() -> {}).get();
+    }
+
+    /**
+     * Schedules the growth of the pool if borrowers wait longer than the {@link AdaptiveSizing#targetWaitTime()}. The
+     * growth itself happens asynchronously, because resizing needs the full pool lock, which cannot be acquired while
+     * holding a permit.
+     */
+    @Override
+    protected void afterWaitingForItem(Duration waitingTime) {
+        if (adaptiveSizing != null && waitingTime.compareTo(adaptiveSizing.targetWaitTime()) > 0
+            && capacity() < adaptiveSizing.maxCapacity() && growthScheduled.compareAndSet(false, true)) {
+            try {
+                executorService.execute(this::grow);
+            } catch (RejectedExecutionException e) {
+                // pool is closing
+                growthScheduled.set(false);
+            }
+        }
+    }
+
+    private void grow() {
+        try {
+            final int capacity = capacity();
+            resize(Math.min(adaptiveSizing.maxCapacity(), capacity + Math.max(1, capacity / 2)));
+        } finally {
+            growthScheduled.set(false);
+        }
+    }
+
+    private void scheduleBackgroundValidation() {
+        final Duration interval = validationPolicy.inBackground();
+        if (interval != null) {
+            this.executorService.scheduleWithFixedDelay(this::validateIdleItems, interval.toMillis(),
+                                                        interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Validates every item that is currently not in use once. Each item is taken out of the pool while holding a
+     * permit, so that it cannot be borrowed while it is validated, and put back afterwards if it is still usable.
+     */
+    private void validateIdleItems() {
+        for (int i = itemsNotInUse.size(); i > 0; i--) {
+            if (!tryRunWithPermit(this::validateIdleItem)) {
+                // all items are in use or the pool is closed
+                return;
+            }
+        }
+    }
+
+    private void validateIdleItem() {
+        final ItemAndCreationTime<T> x = itemsNotInUse.poll();
+        if (x == null) {
+            return;
+        }
+        boolean usable = false;
+        try {
+            usable = itemLifecycle.isUsable(x.item());
+        } catch (RuntimeException e) {
+            // treat as unusable, but do not let the exception cancel all future validation runs
+        }
+        if (usable) {
+            // keep the original timestamp so that validation does not reset the item's keep-alive time
+            itemsNotInUse.add(x);
+        } else {
+            destroyItem(x.item());
+        }
     }
 
     @Override
     protected T borrowFromPool() throws InterruptedException {
         T item = pollUntilValidOrEmpty();
         if (item == null) {
-            return Objects.requireNonNull(itemLifecycle.createNew());
+            return createItem();
         } else {
             return item;
         }
     }
 
     private T pollUntilValidOrEmpty() {
+        final Duration minIdleTime = validationPolicy.onBorrowIfIdleFor();
+        final Instant now = minIdleTime == null || minIdleTime.isZero() ? null : clock.instant();
+
         ItemAndCreationTime<T> x;
         while (null != (x = itemsNotInUse.poll())) {
-            if (!itemLifecycle.isUsable(x.item())) {
-                itemLifecycle.destroy(x.item());
+            final boolean mustValidate =
+                    minIdleTime != null && (now == null || !x.createdAt().plus(minIdleTime).isAfter(now));
+            if (mustValidate && !itemLifecycle.isUsable(x.item())) {
+                destroyItem(x.item());
                 continue;
             }
             return x.item();
@@ -131,23 +270,52 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
 
     @Override
     protected void returnToPool(T item) {
+        if (!validationPolicy.onReturn() || itemLifecycle.isUsable(item)) {
+            putBack(item);
+        } else {
+            destroyItem(item);
+        }
+    }
+
+    /**
+     * Items whose action failed are always validated, regardless of the {@link ValidationPolicy}, because the failure
+     * may well have been caused by the item itself.
+     */
+    @Override
+    protected void maybeReturnToPool(T item, Exception ex) {
         if (itemLifecycle.isUsable(item)) {
-            itemsNotInUse.add(new ItemAndCreationTime<>(item, clock.instant()));
-            scheduleNextHousekeeping();
+            putBack(item);
         } else {
-            itemLifecycle.destroy(item);
+            destroyItem(item);
         }
     }
 
+    private T createItem() throws InterruptedException {
+        final T item = Objects.requireNonNull(itemLifecycle.createNew());
+        itemCount.incrementAndGet();
+        return item;
+    }
+
+    private void destroyItem(T item) {
+        itemCount.decrementAndGet();
+        itemLifecycle.destroy(item);
+    }
+
+    private void putBack(T item) {
+        itemsNotInUse.add(new ItemAndCreationTime<>(item, clock.instant()));
+        scheduleNextHousekeeping();
+    }
+
     @Override
     protected void onClose() {
+        executorService.shutdownNow();
         clear();
     }
 
     public void clear() {
         List<ItemAndCreationTime<T>> list = new ArrayList<>(this.capacity());
         itemsNotInUse.drainTo(list);
-        list.forEach(x -> itemLifecycle.destroy(x.item()));
+        list.forEach(x -> destroyItem(x.item()));
     }
 
     /**
@@ -193,6 +361,105 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
         default Optional<Duration> keepAlive() {
             return Optional.empty();
         }
+
+        /**
+         * @return when the pool should call {@link #isUsable(Object)}. Must not be null. Defaults to
+         * {@link ValidationPolicy#ON_BORROW_AND_RETURN}. Lifecycles for which {@link #isUsable(Object)} is expensive,
+         * e.g. because it needs a network round-trip, should choose a policy that keeps validation off the hot path.
+         */
+        default ValidationPolicy validationPolicy() {
+            return ValidationPolicy.ON_BORROW_AND_RETURN;
+        }
+
+        /**
+         * @return how the pool's capacity adapts to the load, or empty if it should stay fixed unless
+         * {@link LazyBlockingPool#resize(int) resized} explicitly. Defaults to empty. Note that without a {@link #keepAlive()} the
+         * pool grows, but never shrinks.
+         */
+        default Optional<AdaptiveSizing> adaptiveSizing() {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lets the capacity of a {@link LazyBlockingPool} follow the load. Whenever a borrower had to wait longer than
+     * {@code targetWaitTime} for an item, the capacity grows by half, but never beyond {@code maxCapacity}. Whenever
+     * idle items are retired after their {@link Lifecycle#keepAlive() keep-alive time}, the capacity shrinks by the
+     * number of retired items, but never below the capacity the pool was created with.
+     *
+     * @param maxCapacity    the hard limit for the pool's capacity. Must be positive.
+     * @param targetWaitTime the longest acceptable time to wait for an item. Must not be negative.
+     */
+    public record AdaptiveSizing(int maxCapacity, Duration targetWaitTime) {
+        /**
+         * @throws IllegalArgumentException if {@code maxCapacity} is not positive or {@code targetWaitTime} is negative.
+         * @throws NullPointerException     if {@code targetWaitTime} is {@code null}.
+         */
+        public AdaptiveSizing {
+            if (maxCapacity <= 0) {
+                throw new IllegalArgumentException("maxCapacity must be positive");
+            }
+            if (targetWaitTime.isNegative()) {
+                throw new IllegalArgumentException("targetWaitTime must not be negative");
+            }
+        }
+    }
+
+    /**
+     * Defines when a {@link LazyBlockingPool} validates its items by calling {@link Lifecycle#isUsable(Object)}. Items
+     * whose action threw an exception are always validated before they are returned to the pool.
+     *
+     * @param onBorrowIfIdleFor items are validated when they are borrowed, but only if they have not been used for at
+     *                          least this long. {@link Duration#ZERO} validates on every borrow, {@code null} never
+     *                          validates on borrow.
+     * @param onReturn          whether items are validated when they are returned to the pool.
+     * @param inBackground      the delay between two runs of a background task that validates all items currently
+     *                          not in use. {@code null} disables background validation.
+     */
+    public record ValidationPolicy(Duration onBorrowIfIdleFor, boolean onReturn, Duration inBackground) {
+        /**
+         * Validates items every time they are borrowed or returned.
+         */
+        public static final ValidationPolicy ON_BORROW_AND_RETURN = new ValidationPolicy(Duration.ZERO, true, null);
+        /**
+         * Validates items every time they are borrowed.
+         */
+        public static final ValidationPolicy ON_BORROW = new ValidationPolicy(Duration.ZERO, false, null);
+        /**
+         * Validates items every time they are returned.
+         */
+        public static final ValidationPolicy ON_RETURN = new ValidationPolicy(null, true, null);
+        /**
+         * Never validates items, for lifecycles whose items cannot become unusable.
+         */
+        public static final ValidationPolicy NEVER = new ValidationPolicy(null, false, null);
+
+        /**
+         * @throws IllegalArgumentException if {@code onBorrowIfIdleFor} is negative or {@code inBackground} is not
+         *                                  positive.
+         */
+        public ValidationPolicy {
+            if (onBorrowIfIdleFor != null && onBorrowIfIdleFor.isNegative()) {
+                throw new IllegalArgumentException("onBorrowIfIdleFor must not be negative");
+            }
+            if (inBackground != null && (inBackground.isNegative() || inBackground.isZero())) {
+                throw new IllegalArgumentException("inBackground must be positive");
+            }
+        }
+
+        /**
+         * Validates items when they are borrowed after having been idle for at least the given duration.
+         */
+        public static ValidationPolicy whenIdleLongerThan(Duration minIdleTime) {
+            return new ValidationPolicy(Objects.requireNonNull(minIdleTime), false, null);
+        }
+
+        /**
+         * Validates items only in a background task that runs with the given delay, never on borrow or return.
+         */
+        public static ValidationPolicy inBackground(Duration interval) {
+            return new ValidationPolicy(null, false, Objects.requireNonNull(interval));
+        }
     }
 
     //region Re-sizing
@@ -206,12 +473,13 @@ public class LazyBlockingPool<T> extends AbstractBlockingPool<T> implements Bloc
     private class ResizeMixin extends AbstractBlockingPool<T>.ResizeMixin {
         @Override
         protected void onResize(int newCapacity) {
-            // if the old queue has more elements than the new, we drain the superfluous elements (beginning with the
-            // oldest, i.e. the head of the queue) and destroy them
-            int nrOfSuperfluousElements = capacity() - newCapacity;
+            // if the old queue has more elements than the new capacity, we drain the superfluous elements (beginning
+            // with the oldest, i.e. the head of the queue) and destroy them. Items are created lazily, so the queue
+            // may hold fewer elements than the old capacity.
+            int nrOfSuperfluousElements = itemsNotInUse.size() - newCapacity;
             for (int i = 0; i < nrOfSuperfluousElements; i++) {
                 T item = itemsNotInUse.remove().item();
-                itemLifecycle.destroy(item);
+                destroyItem(item);
             }
 
             // replace old queue with a new queue with the new capacity
@@ -0,0 +1,46 @@
+package io.github.jhahnhro.enhancedcdi.pooled;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * An interceptor binding for beans that are expensive to create and not thread-safe, e.g. parsers or cryptographic
+ * engines. Every business method invocation on such a bean is executed on an instance borrowed exclusively from a
+ * {@link LazyBlockingPool} of contextual instances of the bean, so that concurrent invocations never share an
+ * instance. If all instances are in use, the invocation blocks until one becomes available.
+ * <p>
+ * The pooled instances are created lazily by the bean itself, i.e. they have their dependencies injected and their
+ * {@link jakarta.annotation.PostConstruct} and {@link jakarta.annotation.PreDestroy} callbacks called as usual. The
+ * instance the clients get injected only forwards invocations to the pool, its own lifecycle callbacks are skipped.
+ * <p>
+ * The pool's capacity and keep-alive time can be overridden using MicroProfile Config, with the keys
+ * {@code <fully qualified bean class name>/Pooled/capacity} and {@code <fully qualified bean class name>/Pooled/keepAlive}
+ * respectively.
+ *
+ * @apiNote An invocation on a pooled instance that calls the same bean again through an injected reference borrows a
+ * second instance from the pool. If the pool's capacity is exhausted by that thread, it will block forever.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+@InterceptorBinding
+@Documented
+public @interface Pooled {
+    /**
+     * @return the maximum number of instances. Must be positive.
+     */
+    @Nonbinding int capacity() default 8;
+
+    /**
+     * @return the time an instance is kept in the pool while not being used, as an ISO-8601 duration as understood by
+     * {@link java.time.Duration#parse(CharSequence)}. If empty, instances are kept until the application shuts down.
+     */
+    @Nonbinding String keepAlive() default "";
+}
@@ -0,0 +1,202 @@
+package io.github.jhahnhro.enhancedcdi.pooled;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Holds a {@link LazyBlockingPool} of contextual instances for every {@link Pooled} bean.
+ */
+@ApplicationScoped
+class PooledInstances {
+
+    private static final System.Logger LOG = System.getLogger(PooledInstances.class.getName());
+
+    private final Map<Bean<?>, LazyBlockingPool<Object>> pools = new ConcurrentHashMap<>();
+    /**
+     * The pooled instance the current thread is executing a method or lifecycle callback on, if any.
+     */
+    private final ThreadLocal<Object> currentInstance = new ThreadLocal<>();
+    /**
+     * The bean whose pooled instance is currently being created by the current thread, if any.
+     */
+    private final ThreadLocal<Bean<?>> beanUnderConstruction = new ThreadLocal<>();
+
+    @Inject
+    BeanManager beanManager;
+
+    /**
+     * Borrows a pooled instance of the given bean for the duration of the given action.
+     *
+     * @param bean          a bean annotated with {@link Pooled}
+     * @param configuration the binding of the bean, used to configure the pool on first use
+     * @param action        the action to execute
+     * @return the action's result
+     * @throws InterruptedException if the current thread is interrupted while waiting for an instance
+     */
+    <V> V apply(Bean<?> bean, Pooled configuration, BlockingPool.ThrowingFunction<Object, V, Exception> action)
+            throws Exception {
+        final LazyBlockingPool<Object> pool = pools.computeIfAbsent(bean, b -> createPool(b, configuration));
+        return pool.apply(instance -> {
+            final Object previous = currentInstance.get();
+            currentInstance.set(instance);
+            try {
+                return action.apply(instance);
+            } finally {
+                restore(currentInstance, previous);
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} iff the current thread is executing a method or lifecycle callback of the given instance
+     * on behalf of its pool.
+     */
+    boolean isPooledInstance(Object instance) {
+        return instance != null && instance == currentInstance.get();
+    }
+
+    /**
+     * @return {@code true} iff the current thread is creating a pooled instance of the given bean.
+     */
+    boolean isUnderConstruction(Bean<?> bean) {
+        return bean.equals(beanUnderConstruction.get());
+    }
+
+    private LazyBlockingPool<Object> createPool(Bean<?> bean, Pooled configuration) {
+        final Settings settings = Settings.of(bean, configuration);
+        LOG.log(Level.DEBUG, "Creating pool of instances with capacity %d for %s".formatted(settings.capacity(), bean));
+        try {
+            return new LazyBlockingPool<>(0, settings.capacity(), new InstanceLifecycle<>(bean, settings));
+        } catch (InterruptedException e) {
+            // cannot happen, because the pool is initially empty
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    void closePools() {
+        pools.values().forEach(LazyBlockingPool::close);
+        pools.clear();
+    }
+
+    private static <T> void restore(ThreadLocal<T> threadLocal, T previous) {
+        if (previous == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(previous);
+        }
+    }
+
+    private record Settings(int capacity, Optional<Duration> keepAlive) {
+        Settings {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive");
+            }
+            if (keepAlive.isPresent() && keepAlive.get().isNegative()) {
+                throw new IllegalArgumentException("keepAlive must not be negative");
+            }
+        }
+
+        static Settings of(Bean<?> bean, Pooled pooled) {
+            final Optional<Config> config = getConfig();
+            final String prefix = bean.getBeanClass().getName() + "/" + Pooled.class.getSimpleName() + "/";
+
+            final int capacity = config.flatMap(c -> c.getOptionalValue(prefix + "capacity", Integer.class))
+                    .orElse(pooled.capacity());
+            final String keepAlive = config.flatMap(c -> c.getOptionalValue(prefix + "keepAlive", String.class))
+                    .orElse(pooled.keepAlive());
+
+            return new Settings(capacity,
+                                keepAlive.isBlank() ? Optional.empty() : Optional.of(Duration.parse(keepAlive)));
+        }
+
+        private static Optional<Config> getConfig() {
+            try {
+                return Optional.of(ConfigProvider.getConfig());
+            } catch (IllegalStateException e) {
+                LOG.log(Level.DEBUG, "No MicroProfile Config implementation found, using the values of @Pooled.");
+                return Optional.empty();
+            }
+        }
+    }
+
+    private class InstanceLifecycle<T> implements LazyBlockingPool.Lifecycle<Object> {
+        private final Bean<T> bean;
+        private final Settings settings;
+        private final Map<Object, CreationalContext<T>> creationalContexts = new ConcurrentHashMap<>();
+
+        InstanceLifecycle(Bean<T> bean, Settings settings) {
+            this.bean = bean;
+            this.settings = settings;
+        }
+
+        @Override
+        public Object createNew() {
+            final CreationalContext<T> creationalContext = beanManager.createCreationalContext(bean);
+            final Bean<?> previous = beanUnderConstruction.get();
+            beanUnderConstruction.set(bean);
+            final T instance;
+            try {
+                instance = bean.create(creationalContext);
+            } finally {
+                restore(beanUnderConstruction, previous);
+            }
+            creationalContexts.put(new IdentityKey(instance), creationalContext);
+            return instance;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void destroy(Object instance) {
+            final CreationalContext<T> creationalContext = creationalContexts.remove(new IdentityKey(instance));
+            final Object previous = currentInstance.get();
+            currentInstance.set(instance);
+            try {
+                bean.destroy((T) instance, creationalContext);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Pooled instance of %s could not be destroyed".formatted(bean), e);
+            } finally {
+                restore(currentInstance, previous);
+            }
+        }
+
+        @Override
+        public Optional<Duration> keepAlive() {
+            return settings.keepAlive();
+        }
+
+        @Override
+        public LazyBlockingPool.ValidationPolicy validationPolicy() {
+            // contextual instances never become unusable on their own
+            return LazyBlockingPool.ValidationPolicy.NEVER;
+        }
+    }
+
+    /**
+     * Compares instances by identity, because beans are free to override {@link Object#equals(Object)}.
+     */
+    private record IdentityKey(Object instance) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IdentityKey other && other.instance == this.instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.jhahnhro.enhancedcdi.pooled;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.inject.Intercepted;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Forwards every business method invocation on a {@link Pooled} bean to an instance borrowed from its pool. The
+ * interceptor runs before all others, so that other interceptors only run once, namely on the pooled instance.
+ */
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+@Pooled
+class PooledInterceptor {
+
+    @Inject
+    @Intercepted
+    Bean<?> bean;
+
+    @Inject
+    PooledInstances pooledInstances;
+
+    @AroundInvoke
+    public Object invokeOnPooledInstance(InvocationContext invocationContext) throws Exception {
+        if (pooledInstances.isPooledInstance(invocationContext.getTarget())) {
+            return invocationContext.proceed();
+        }
+        final Pooled configuration = invocationContext.getInterceptorBinding(Pooled.class);
+        final Method method = invocationContext.getMethod();
+        final Object[] parameters = invocationContext.getParameters();
+        return pooledInstances.apply(bean, configuration, instance -> invoke(method, instance, parameters));
+    }
+
+    @PostConstruct
+    void postConstruct(InvocationContext invocationContext) throws Exception {
+        // only initialize pooled instances, not the one that forwards to the pool
+        if (pooledInstances.isUnderConstruction(bean)) {
+            invocationContext.proceed();
+        }
+    }
+
+    @PreDestroy
+    void preDestroy(InvocationContext invocationContext) throws Exception {
+        if (pooledInstances.isPooledInstance(invocationContext.getTarget())) {
+            invocationContext.proceed();
+        }
+    }
+
+    private static Object invoke(Method method, Object instance, Object[] parameters) throws Exception {
+        if (!method.canAccess(instance)) {
+            method.setAccessible(true);
+        }
+        try {
+            return method.invoke(instance, parameters);
+        } catch (InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.jhahnhro.enhancedcdi.types;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -7,10 +8,34 @@ import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
 
-public record ParameterizedTypeImpl(Class<?> rawType, Type ownerType, List<Type> actualTypeArguments)
-        implements ParameterizedType, Serializable {
+/**
+ * Immutable implementation of {@link ParameterizedType} that is equal to, and has the same hash code as, the JDK's and
+ * Weld's implementations.
+ * <p>
+ * Instances are frequently used as map keys, therefore the hash code is cached and {@link #equals(Object)} does not
+ * allocate when comparing two instances of this class. Use {@link #intern()} to let equal types share one instance.
+ */
+public final class ParameterizedTypeImpl implements ParameterizedType, Serializable {
 
-    public ParameterizedTypeImpl {
+    /**
+     * The implicit serialVersionUID of the former record, whose serialized form had the same fields.
+     */
+    @Serial
+    private static final long serialVersionUID = 0L;
+
+    private static final TypeCache<ParameterizedTypeImpl> INTERNED = new TypeCache<>(
+            type -> (ParameterizedTypeImpl) type, 64);
+
+    private final Class<?> rawType;
+    private final Type ownerType;
+    private final List<Type> actualTypeArguments;
+    /**
+     * The cached hash code, or 0 if not computed yet. Like {@link String#hashCode()}, it is computed lazily, so that
+     * it does not need to be serialized.
+     */
+    private transient int hash;
+
+    public ParameterizedTypeImpl(Class<?> rawType, Type ownerType, List<Type> actualTypeArguments) {
         // implicit NPE if rawType == null
         if ((rawType.getDeclaringClass() == null) ^ (ownerType == null)) {
             throw new IllegalArgumentException(
@@ -20,13 +45,51 @@ public record ParameterizedTypeImpl(Class<?> rawType, Type ownerType, List<Type>
         if (rawType.getTypeParameters().length != actualTypeArguments.size()) {
             throw new IllegalArgumentException("wrong number of type parameters");
         }
-        actualTypeArguments = List.copyOf(actualTypeArguments);
+        this.rawType = rawType;
+        this.ownerType = ownerType;
+        this.actualTypeArguments = List.copyOf(actualTypeArguments);
     }
 
     public ParameterizedTypeImpl(Class<?> rawType, Type ownerType, Type... actualTypeArguments) {
         this(rawType, ownerType, List.of(actualTypeArguments));
     }
 
+    /**
+     * Returns a canonical instance that is equal to this type, similar to {@link String#intern()}. Interned types are
+     * cached globally, but do not prevent their classes from being unloaded.
+     *
+     * @return an instance equal to this one, possibly this one.
+     */
+    public ParameterizedTypeImpl intern() {
+        return INTERNED.get(this);
+    }
+
+    public Class<?> rawType() {
+        return rawType;
+    }
+
+    public Type ownerType() {
+        return ownerType;
+    }
+
+    /**
+     * Like {@link #getActualTypeArguments()}, but returns the immutable list of type arguments without copying it.
+     *
+     * @return the type arguments
+     */
+    public List<Type> actualTypeArguments() {
+        return actualTypeArguments;
+    }
+
+    /**
+     * Deserializes through the constructor, like records do, so that the invariants are checked and the hash code is
+     * computed from the deserialized fields.
+     */
+    @Serial
+    private Object readResolve() {
+        return new ParameterizedTypeImpl(rawType, ownerType, actualTypeArguments);
+    }
+
     @Override
     public Type[] getActualTypeArguments() {
         return actualTypeArguments.toArray(Type[]::new);
@@ -45,10 +108,14 @@ public record ParameterizedTypeImpl(Class<?> rawType, Type ownerType, List<Type>
 
     @Override
     public int hashCode() {
-        // not Objects.hash(...) in order to be consistent with Weld's implementation
-
-        return actualTypeArguments.hashCode() // happens to be equal to Arrays.hashCode which Weld uses
-               ^ Objects.hashCode(ownerType) ^ Objects.hashCode(rawType);
+        int h = hash;
+        if (h == 0) {
+            // not Objects.hash(...) in order to be consistent with Weld's implementation
+            h = actualTypeArguments.hashCode() // happens to be equal to Arrays.hashCode which Weld uses
+                ^ Objects.hashCode(ownerType) ^ Objects.hashCode(rawType);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -56,9 +123,28 @@ public record ParameterizedTypeImpl(Class<?> rawType, Type ownerType, List<Type>
         if (this == obj) {
             return true;
         }
-        return obj instanceof ParameterizedType that && Objects.equals(this.ownerType, that.getOwnerType())
-               && Objects.equals(this.rawType, that.getRawType()) && Objects.equals(this.actualTypeArguments,
-                                                                                    List.of(that.getActualTypeArguments()));
+        if (obj instanceof ParameterizedTypeImpl that) {
+            // comparing the cached hash codes first rejects most unequal types cheaply
+            return this.hashCode() == that.hashCode() && this.rawType == that.rawType
+                   && Objects.equals(this.ownerType, that.ownerType)
+                   && this.actualTypeArguments.equals(that.actualTypeArguments);
+        }
+        return obj instanceof ParameterizedType that && Objects.equals(this.rawType, that.getRawType())
+               && Objects.equals(this.ownerType, that.getOwnerType()) && equalTypeArguments(that);
+    }
+
+    private boolean equalTypeArguments(ParameterizedType that) {
+        // the copy is unavoidable, but no list is wrapped around it
+        final Type[] thoseTypeArguments = that.getActualTypeArguments();
+        if (thoseTypeArguments.length != actualTypeArguments.size()) {
+            return false;
+        }
+        for (int i = 0; i < thoseTypeArguments.length; i++) {
+            if (!actualTypeArguments.get(i).equals(thoseTypeArguments[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
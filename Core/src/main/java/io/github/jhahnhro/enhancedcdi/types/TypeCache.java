@@ -0,0 +1,157 @@
+package io.github.jhahnhro.enhancedcdi.types;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded, global memo of a function on types that does not prevent classes from being unloaded.
+ * <p>
+ * Each entry is stored with the class of the key whose class loader is the most specific among the classes occurring
+ * in the key, the classes implementing the key and its components (and this class), i.e. in a {@link ClassValue} of
+ * that class. Thus, the entry can only reference classes
+ * that live at least as long as that class, and vanishes together with it. Keys that mention classes from unrelated
+ * class loaders are not cached at all.
+ *
+ * @param <V> the type of values
+ */
+final class TypeCache<V> {
+    private static final int MAX_SHARED_ENTRIES = 1024;
+
+    private final Function<? super Type, ? extends V> function;
+    private final int maxEntriesPerClass;
+    private final ClassValue<Map<Type, V>> entriesByClass = new ClassValue<>() {
+        @Override
+        protected Map<Type, V> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    /**
+     * Entries whose keys only mention classes that live at least as long as this class, e.g. JDK classes. At most
+     * {@value MAX_SHARED_ENTRIES} entries.
+     */
+    private final Map<Type, V> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param function           the function to memoize
+     * @param maxEntriesPerClass the maximum number of entries stored with a single class. Once reached, values are
+     *                           still computed, but not stored anymore.
+     */
+    TypeCache(Function<? super Type, ? extends V> function, int maxEntriesPerClass) {
+        this.function = function;
+        this.maxEntriesPerClass = maxEntriesPerClass;
+    }
+
+    V get(Type type) {
+        final Class<?> owner = owner(type);
+        if (owner == null) {
+            return function.apply(type);
+        }
+        final boolean shared = owner == TypeCache.class;
+        final Map<Type, V> map = shared ? entries : entriesByClass.get(owner);
+        final V cached = map.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        final V value = function.apply(type);
+        if (map.size() < (shared ? MAX_SHARED_ENTRIES : maxEntriesPerClass)) {
+            final V previous = map.putIfAbsent(type, value);
+            return previous != null ? previous : value;
+        }
+        return value;
+    }
+
+    /**
+     * @return the class with the most specific class loader among the classes occurring in {@code type}, the classes
+     * implementing {@code type} and its components, and this class, or {@code null} if their class loaders are
+     * unrelated. Prefers classes occurring in {@code type} over this class, so that entries are spread over many
+     * classes.
+     */
+    private static Class<?> owner(Type type) {
+        return owner(type, TypeCache.class);
+    }
+
+    private static Class<?> owner(Type type, Class<?> currentOwner) {
+        if (type == null) {
+            return currentOwner;
+        }
+        // the key references the class implementing it as well, e.g. a ParameterizedType of another library
+        currentOwner = moreSpecific(type.getClass(), currentOwner);
+        return switch (type) {
+            case Class<?> clazz -> {
+                Class<?> elementType = clazz;
+                while (elementType.isArray()) {
+                    elementType = elementType.getComponentType();
+                }
+                yield moreSpecific(currentOwner, elementType);
+            }
+            case ParameterizedType parameterizedType -> {
+                Class<?> owner = owner(parameterizedType.getRawType(), currentOwner);
+                owner = owner(parameterizedType.getOwnerType(), owner);
+                for (Type typeArgument : parameterizedType.getActualTypeArguments()) {
+                    owner = owner(typeArgument, owner);
+                }
+                yield owner;
+            }
+            case GenericArrayType arrayType -> owner(arrayType.getGenericComponentType(), currentOwner);
+            case WildcardType wildcardType -> {
+                Class<?> owner = currentOwner;
+                for (Type bound : wildcardType.getUpperBounds()) {
+                    owner = owner(bound, owner);
+                }
+                for (Type bound : wildcardType.getLowerBounds()) {
+                    owner = owner(bound, owner);
+                }
+                yield owner;
+            }
+            case TypeVariable<?> typeVariable -> moreSpecific(currentOwner, declaringClass(typeVariable));
+            default -> null;
+        };
+    }
+
+    private static Class<?> declaringClass(TypeVariable<?> typeVariable) {
+        final GenericDeclaration declaration = typeVariable.getGenericDeclaration();
+        return switch (declaration) {
+            case Class<?> clazz -> clazz;
+            case Method method -> method.getDeclaringClass();
+            case Constructor<?> constructor -> constructor.getDeclaringClass();
+            default -> null;
+        };
+    }
+
+    private static Class<?> moreSpecific(Class<?> first, Class<?> second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        final ClassLoader firstLoader = first.getClassLoader();
+        final ClassLoader secondLoader = second.getClassLoader();
+        if (isAncestor(firstLoader, secondLoader)) {
+            return second;
+        }
+        if (isAncestor(secondLoader, firstLoader)) {
+            return first;
+        }
+        return null;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        if (ancestor == null) {
+            // the bootstrap class loader
+            return true;
+        }
+        for (ClassLoader current = loader; current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,18 +5,33 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.github.jhahnhro.enhancedcdi.util.Iteration;
 
 public class TypeVariableResolver {
+    private static final int MAX_CACHED_TYPES_PER_CLASS = 64;
+    /**
+     * The known variables of types, see {@link #withKnownTypesOf(Type)}.
+     */
+    private static final TypeCache<Map<TypeVariable<?>, Type>> KNOWN_TYPES = new TypeCache<>(
+            TypeVariableResolver::getKnownTypes, MAX_CACHED_TYPES_PER_CLASS);
+    /**
+     * The resolved type closures of types, see {@link #resolvedTypeClosureOf(Type)}.
+     */
+    private static final TypeCache<Set<Type>> TYPE_CLOSURES = new TypeCache<>(
+            type -> withKnownTypesOf(type).resolvedTypeClosure(type), MAX_CACHED_TYPES_PER_CLASS);
+
     private final Map<TypeVariable<?>, Type> resolvedVariables;
     private final Map<Type, Type> resolvedTypesCache = new ConcurrentHashMap<>();
 
@@ -30,7 +45,21 @@ public class TypeVariableResolver {
     }
 
     public static TypeVariableResolver withKnownTypesOf(Type type) {
-        return new TypeVariableResolver(getKnownTypes(type));
+        return new TypeVariableResolver(type == null ? Map.of() : KNOWN_TYPES.get(type));
+    }
+
+    /**
+     * Equivalent to {@code withKnownTypesOf(type).resolvedTypeClosure(type)}, but the result is cached globally, so
+     * repeated calls for the same type are cheap.
+     *
+     * @param type a type that is neither a type variable nor a wildcard
+     * @return the resolved type closure of the given type
+     */
+    public static Set<Type> resolvedTypeClosureOf(Type type) {
+        if (type instanceof TypeVariable<?> || type instanceof WildcardType) {
+            throw new IllegalArgumentException();
+        }
+        return TYPE_CLOSURES.get(Objects.requireNonNull(type));
     }
 
     private static Map<TypeVariable<?>, Type> getKnownTypes(Type type) {
@@ -41,40 +70,55 @@ public class TypeVariableResolver {
 
         final Map<TypeVariable<?>, Type> result = new HashMap<>();
 
-        Iteration.depthFirstSearch(type, TypeVariableResolver::getRelatedTypes)
-                .stream()
-                .filter(ParameterizedType.class::isInstance)
-                .map(ParameterizedType.class::cast)
-                .forEach(relatedType -> {
-                    final Class<?> rawType = (Class<?>) relatedType.getRawType();
-                    final TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
-                    final Type[] actualTypeArguments = relatedType.getActualTypeArguments();
-                    for (int i = 0; i < typeParameters.length; i++) {
-                        result.put(typeParameters[i], resolveInternal(actualTypeArguments[i], result));
-                    }
-                });
+        for (Type relatedType : Iteration.depthFirstTraversal(type, TypeVariableResolver::forEachRelatedType, false)) {
+            if (relatedType instanceof ParameterizedType parameterizedType) {
+                final Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+                final TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+                final List<Type> actualTypeArguments = actualTypeArguments(parameterizedType);
+                for (int i = 0; i < typeParameters.length; i++) {
+                    result.put(typeParameters[i], resolveInternal(actualTypeArguments.get(i), result));
+                }
+            }
+        }
         result.entrySet().removeIf(entry -> Objects.equals(entry.getKey(), entry.getValue()));
 
-        return Collections.unmodifiableMap(result);
+        return Map.copyOf(result);
     }
 
-    private static Stream<Type> getRelatedTypes(Type type) {
-        final Stream<Type> relatedTypes = switch (type) {
-            case Class<?> clazz -> clazz.isArray() ?
-                    // unpack array class
-                    Stream.of(clazz.getComponentType()) :
-                    // otherwise use enclosing class and generic super types
-                    Stream.concat(Stream.of(clazz.getEnclosingClass(), clazz.getGenericSuperclass()),
-                                  Stream.of(clazz.getGenericInterfaces()));
+    private static void forEachRelatedType(Type type, Consumer<Type> action) {
+        switch (type) {
+            // unpack array class
+            case Class<?> clazz when clazz.isArray() -> action.accept(clazz.getComponentType());
+            // otherwise use enclosing class and generic super types
+            case Class<?> clazz -> {
+                action.accept(clazz.getEnclosingClass());
+                action.accept(clazz.getGenericSuperclass());
+                for (Type genericInterface : clazz.getGenericInterfaces()) {
+                    action.accept(genericInterface);
+                }
+            }
             case ParameterizedType parameterizedType -> {
                 final Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-                yield Stream.concat(Stream.of(parameterizedType.getOwnerType(), rawType.getGenericSuperclass()),
-                                    Stream.of(rawType.getGenericInterfaces()));
+                action.accept(parameterizedType.getOwnerType());
+                action.accept(rawType.getGenericSuperclass());
+                for (Type genericInterface : rawType.getGenericInterfaces()) {
+                    action.accept(genericInterface);
+                }
             }
-            case GenericArrayType genericArrayType -> Stream.of(genericArrayType.getGenericComponentType());
-            default -> Stream.empty();
-        };
-        return relatedTypes.filter(Objects::nonNull);
+            case GenericArrayType genericArrayType -> action.accept(genericArrayType.getGenericComponentType());
+            default -> {
+                // no related types
+            }
+        }
+    }
+
+    /**
+     * @return the type arguments of the given type, without copying them if possible.
+     */
+    private static List<Type> actualTypeArguments(ParameterizedType parameterizedType) {
+        return parameterizedType instanceof ParameterizedTypeImpl parameterizedTypeImpl
+                ? parameterizedTypeImpl.actualTypeArguments()
+                : Arrays.asList(parameterizedType.getActualTypeArguments());
     }
 
     private static Type normalize(Class<?> clazz) {
@@ -99,6 +143,7 @@ public class TypeVariableResolver {
             }
             case GenericArrayType arrayType ->
                     new GenericArrayTypeImpl(resolveInternal(arrayType.getGenericComponentType(), resolvedVariables));
+            case ParameterizedTypeImpl parameterizedType -> resolveInternal(parameterizedType, resolvedVariables);
             case ParameterizedType parameterizedType ->
                     new ParameterizedTypeImpl((Class<?>) parameterizedType.getRawType(),
                                               resolveInternal(parameterizedType.getOwnerType(), resolvedVariables),
@@ -111,6 +156,33 @@ public class TypeVariableResolver {
         };
     }
 
+    /**
+     * Like the general case for {@link ParameterizedType}s, but reads the type arguments without copying them and
+     * returns the given type itself if nothing needs to be resolved.
+     */
+    private static ParameterizedTypeImpl resolveInternal(ParameterizedTypeImpl parameterizedType,
+                                                         Map<TypeVariable<?>, Type> resolvedVariables) {
+        final Type ownerType = resolveInternal(parameterizedType.ownerType(), resolvedVariables);
+        final List<Type> typeArguments = parameterizedType.actualTypeArguments();
+        Type[] resolvedTypeArguments = null;
+        for (int i = 0; i < typeArguments.size(); i++) {
+            final Type typeArgument = typeArguments.get(i);
+            final Type resolvedTypeArgument = resolveInternal(typeArgument, resolvedVariables);
+            if (resolvedTypeArguments == null && resolvedTypeArgument != typeArgument) {
+                // copy lazily, i.e. only if at least one argument has changed
+                resolvedTypeArguments = typeArguments.toArray(Type[]::new);
+            }
+            if (resolvedTypeArguments != null) {
+                resolvedTypeArguments[i] = resolvedTypeArgument;
+            }
+        }
+        if (resolvedTypeArguments == null) {
+            return ownerType == parameterizedType.ownerType() ? parameterizedType
+                    : new ParameterizedTypeImpl(parameterizedType.rawType(), ownerType, typeArguments);
+        }
+        return new ParameterizedTypeImpl(parameterizedType.rawType(), ownerType, resolvedTypeArguments);
+    }
+
     private static Type[] resolveInternal(Type[] types, Map<TypeVariable<?>, Type> resolvedVariables) {
         Type[] result = new Type[types.length];
         for (int i = 0; i < types.length; i++) {
@@ -6,14 +6,12 @@ import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Stream;
 
 import io.github.jhahnhro.enhancedcdi.util.Iteration;
@@ -23,6 +21,25 @@ import io.github.jhahnhro.enhancedcdi.util.Iteration;
  */
 public final class Types {
 
+    /**
+     * Caches {@link #superClasses(Class)}. A {@link ClassValue} does not prevent classes from being unloaded.
+     */
+    private static final ClassValue<List<Class<?>>> SUPER_CLASSES = new ClassValue<>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> clazz) {
+            return computeSuperClasses(clazz);
+        }
+    };
+    /**
+     * Caches {@link #superInterfaces(Class)}.
+     */
+    private static final ClassValue<Set<Class<?>>> SUPER_INTERFACES = new ClassValue<>() {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> clazz) {
+            return computeSuperInterfaces(clazz);
+        }
+    };
+
     private Types() {}
 
     public static Class<?> erasure(Type type) {
@@ -42,9 +59,13 @@ public final class Types {
      *
      * @param clazz a Class
      * @param <T>   the type
-     * @return the super-classes
+     * @return the super-classes. Immutable.
      */
     public static <T> List<Class<?>> superClasses(Class<T> clazz) {
+        return SUPER_CLASSES.get(clazz);
+    }
+
+    private static List<Class<?>> computeSuperClasses(Class<?> clazz) {
         if (clazz.isInterface()) {
             return List.of(Object.class);
         }
@@ -58,19 +79,26 @@ public final class Types {
      *
      * @param clazz a Class
      * @param <T>   the type
-     * @return the set of super-interfaces
+     * @return the set of super-interfaces. Immutable.
      */
     public static <T> Set<Class<?>> superInterfaces(Class<T> clazz) {
-        final Function<Class<?>, Stream<Class<?>>> edges = aClass -> {
-            final Class<?> superclass = aClass.getSuperclass();
-            final Stream<Class<?>> interfaces = Arrays.stream(aClass.getInterfaces());
-            return superclass == null ? interfaces : Stream.concat(Stream.of(superclass), interfaces);
+        return SUPER_INTERFACES.get(clazz);
+    }
+
+    private static Set<Class<?>> computeSuperInterfaces(Class<?> clazz) {
+        final Iteration.Neighbours<Class<?>> edges = (aClass, action) -> {
+            action.accept(aClass.getSuperclass());
+            for (Class<?> anInterface : aClass.getInterfaces()) {
+                action.accept(anInterface);
+            }
         };
-        final List<Class<?>> superInterfaces = Iteration.breadthFirstSearch(clazz, edges)
-                .stream()
-                .filter(Class::isInterface)
-                .toList();
-        return Collections.unmodifiableSequencedSet(new LinkedHashSet<>(superInterfaces));
+        final LinkedHashSet<Class<?>> superInterfaces = new LinkedHashSet<>();
+        for (Class<?> superType : Iteration.breadthFirstTraversal(clazz, edges, true)) {
+            if (superType.isInterface()) {
+                superInterfaces.add(superType);
+            }
+        }
+        return Collections.unmodifiableSequencedSet(superInterfaces);
     }
 
     /**
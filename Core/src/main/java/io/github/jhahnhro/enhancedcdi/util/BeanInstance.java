@@ -45,8 +45,11 @@ public final class BeanInstance<T> {
     private final Supplier<T> instanceSupplier;
     private final Contextual<T> contextual;
     private final CreationalContext<T> context;
-    private T instance;
-    private State state;
+    /**
+     * Written while holding this object's monitor, but read without it on the fast path of {@link #instance()}.
+     */
+    private volatile T instance;
+    private volatile State state;
 
     private BeanInstance(Supplier<T> instanceSupplier, Contextual<T> contextual, CreationalContext<T> context) {
         this.instanceSupplier = instanceSupplier;
@@ -60,6 +63,17 @@ public final class BeanInstance<T> {
         return new BeanInstance<>(() -> contextual.create(context), contextual, context);
     }
 
+    /**
+     * Wraps an already existing contextual instance, e.g. one that has been restored after passivation.
+     */
+    public static <T> BeanInstance<T> ofContextualInstance(Contextual<T> contextual, CreationalContext<T> context,
+                                                           T instance) {
+        final BeanInstance<T> beanInstance = new BeanInstance<>(() -> instance, contextual, context);
+        beanInstance.instance = instance;
+        beanInstance.state = State.INITIALIZED;
+        return beanInstance;
+    }
+
     public static <T> BeanInstance<T> createContextualReference(BeanContainer beanManager, Bean<T> bean, Type beanType) {
         final CreationalContext<T> ctx = beanManager.createCreationalContext(bean);
         return new BeanInstance<>(() -> (T) beanManager.getReference(bean, beanType, ctx), bean, ctx);
@@ -79,9 +93,11 @@ public final class BeanInstance<T> {
 
     public synchronized void destroy() {
         if (state == State.INITIALIZED) {
-            contextual.destroy(instance, context);
+            final T destroyedInstance = instance;
+            // reset before the actual destruction, so that the fast path of instance() no longer returns it
             instance = null;
             state = State.DESTROYED;
+            contextual.destroy(destroyedInstance, context);
         }
     }
 
@@ -105,7 +121,16 @@ public final class BeanInstance<T> {
         return this.contextual instanceof Bean<?> bean && bean.getScope() == Dependent.class;
     }
 
-    public synchronized T instance() {
+    public T instance() {
+        // fast path without locking for the common case that the instance has already been created
+        final T current = instance;
+        if (current != null) {
+            return current;
+        }
+        return initializeIfNecessary();
+    }
+
+    private synchronized T initializeIfNecessary() {
         return switch (state) {
             case NOT_INITIALIZED -> {
                 state = State.INITIALIZED;
@@ -124,7 +149,7 @@ public final class BeanInstance<T> {
     /**
      * @return current state of this instance
      */
-    public synchronized State state() {
+    public State state() {
         return state;
     }
 
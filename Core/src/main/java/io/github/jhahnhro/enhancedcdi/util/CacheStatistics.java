@@ -0,0 +1,14 @@
+package io.github.jhahnhro.enhancedcdi.util;
+
+/**
+ * Number of lookups that were answered from a cache and of those that were not.
+ *
+ * @param hits   the number of lookups answered from the cache
+ * @param misses the number of lookups that had to compute their result
+ */
+public record CacheStatistics(long hits, long misses) {
+
+    public long lookups() {
+        return hits + misses;
+    }
+}
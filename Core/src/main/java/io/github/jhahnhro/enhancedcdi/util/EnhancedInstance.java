@@ -5,8 +5,13 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.github.jhahnhro.enhancedcdi.metadata.InjectionPointImpl;
@@ -17,6 +22,7 @@ import jakarta.enterprise.inject.AmbiguousResolutionException;
 import jakarta.enterprise.inject.Instance;
 import jakarta.enterprise.inject.Typed;
 import jakarta.enterprise.inject.UnsatisfiedResolutionException;
+import jakarta.enterprise.inject.spi.Bean;
 import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.InjectionPoint;
 import jakarta.enterprise.util.TypeLiteral;
@@ -29,9 +35,27 @@ import jakarta.inject.Inject;
 @Typed(EnhancedInstance.class) // prevent this bean from clashing with the built-in bean of type Instance<T>
 public final class EnhancedInstance<T> extends AbstractInstanceDecorator<T> {
 
+    private static final int MAX_CACHED_SELECTIONS = 32;
+
     private final BeanManager beanContainer;
     private final Predicate<Handle<T>> handleFilter;
-
+    /**
+     * The beans that match this instance's type and qualifiers, computed on first use. The set of beans does not
+     * change once the container is running, so it never needs to be recomputed.
+     */
+    private volatile Set<Bean<?>> matchingBeans;
+    /**
+     * The contextual reference of the unique matching bean if that bean has a normal scope. Such a reference is a
+     * client proxy that stays valid, so {@link #get()} can return it every time.
+     */
+    private volatile T normalScopedReference;
+    /**
+     * The children returned by {@link #selectUnchecked(Type, Annotation...)}, at most
+     * {@value MAX_CACHED_SELECTIONS}.
+     */
+    private final Map<Selection, EnhancedInstance<?>> selections = new ConcurrentHashMap<>();
+    private final LongAdder selectionHits = new LongAdder();
+    private final LongAdder selectionMisses = new LongAdder();
 
     //region constructors
 
@@ -103,15 +127,46 @@ public final class EnhancedInstance<T> extends AbstractInstanceDecorator<T> {
      */
     @SuppressWarnings("unchecked")
     public <U extends T> EnhancedInstance<U> selectUnchecked(Type subtype, Annotation... qualifiers) {
-        Set<Type> types = TypeVariableResolver.withKnownTypesOf(subtype).resolvedTypeClosure(subtype);
+        final Selection selection = new Selection(subtype, List.of(qualifiers));
+        final EnhancedInstance<?> cached = selections.get(selection);
+        if (cached != null) {
+            selectionHits.increment();
+            return (EnhancedInstance<U>) cached;
+        }
+        selectionMisses.increment();
+
+        Set<Type> types = TypeVariableResolver.resolvedTypeClosureOf(subtype);
         if (!types.contains(this.injectionPoint.getType())) {
             throw new IllegalArgumentException(subtype + " is not a subtype of " + this.injectionPoint.getType());
         }
 
-        return (EnhancedInstance<U>) decorate(delegate.select(qualifiers),
-                                              createNewInjectionPoint(subtype, qualifiers));
+        final EnhancedInstance<U> child = (EnhancedInstance<U>) decorate(delegate.select(qualifiers),
+                                                                         createNewInjectionPoint(subtype, qualifiers));
+        if (selections.size() < MAX_CACHED_SELECTIONS) {
+            final EnhancedInstance<?> previous = selections.putIfAbsent(selection, child);
+            if (previous != null) {
+                return (EnhancedInstance<U>) previous;
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Returns how often {@link #selectUnchecked(Type, Annotation...)} on this instance returned a previously selected
+     * child instance, and how often it had to create a new one.
+     *
+     * @return the statistics of the cache of selected child instances.
+     */
+    public CacheStatistics getSelectionStatistics() {
+        return new CacheStatistics(selectionHits.sum(), selectionMisses.sum());
     }
 
+    /**
+     * The qualifiers are kept in the given order and with duplicates, so that illegal qualifiers never match a cached
+     * selection and are still rejected by the delegate.
+     */
+    private record Selection(Type type, List<Annotation> qualifiers) {}
+
     @Override
     protected <U extends T> EnhancedInstance<U> decorate(Instance<U> delegate, InjectionPoint newInjectionPoint) {
         return new EnhancedInstance<>(beanContainer, delegate, newInjectionPoint);
@@ -122,20 +177,42 @@ public final class EnhancedInstance<T> extends AbstractInstanceDecorator<T> {
     @Override
     public boolean isUnsatisfied() {
         return super.isUnsatisfied() // short-circuit if the delegate already knows it's empty
-               || this.handlesStream().findAny().isEmpty();
+               || this.matchingBeans().isEmpty();
     }
 
     @Override
     public boolean isAmbiguous() {
         return super.isAmbiguous() // short-circuit if the delegate already knows it's non-ambiguous
-               && this.handlesStream().limit(2).count() > 1;
+               && this.matchingBeans().size() > 1;
+    }
+
+    private Set<Bean<?>> matchingBeans() {
+        Set<Bean<?>> beans = this.matchingBeans;
+        if (beans == null) {
+            // racy, but all threads compute the same set
+            beans = delegate.handlesStream()
+                    .filter(handleFilter)
+                    .<Bean<?>>map(Handle::getBean)
+                    .collect(Collectors.toUnmodifiableSet());
+            this.matchingBeans = beans;
+        }
+        return beans;
     }
     //endregion
 
     //region get, iterator, stream for instance(s)
     @Override
     public T get() {
-        return this.getHandle().get();
+        final T reference = this.normalScopedReference;
+        if (reference != null) {
+            return reference;
+        }
+        final Handle<T> handle = this.getHandle();
+        final T instance = handle.get();
+        if (beanContainer.isNormalScope(handle.getBean().getScope())) {
+            this.normalScopedReference = instance;
+        }
+        return instance;
     }
 
     @Override
@@ -196,7 +273,12 @@ public final class EnhancedInstance<T> extends AbstractInstanceDecorator<T> {
      */
     @Override
     public Stream<Handle<T>> handlesStream() {
-        final Stream<Handle<T>> handlesStream = (Stream<Handle<T>>) delegate.handlesStream().filter(handleFilter);
+        final Set<Bean<?>> beans = matchingBeans();
+        if (beans.isEmpty()) {
+            return Stream.empty();
+        }
+        final Stream<Handle<T>> handlesStream = (Stream<Handle<T>>) delegate.handlesStream()
+                .filter(h -> beans.contains(h.getBean()));
         return makeSafe(handlesStream);
     }
 
@@ -2,14 +2,20 @@ package io.github.jhahnhro.enhancedcdi.util;
 
 import static java.util.function.Predicate.not;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.SequencedCollection;
 import java.util.SequencedSet;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -30,10 +36,124 @@ public final class Iteration {
         return iterator.getAlreadyVisited();
     }
 
+    /**
+     * Like {@link #breadthFirstSearch(Object, Function)}, but without creating streams or iterators per vertex.
+     *
+     * @param startVertex the vertex to start from
+     * @param neighbours  the edges of the graph
+     * @param byIdentity  whether vertices are compared by identity instead of {@link Object#equals(Object)}
+     * @param <X>         the type of vertices of the graph
+     * @return all vertices reachable from {@code startVertex} in the order they are visited. Unmodifiable.
+     * @throws NullPointerException if {@code startVertex} is {@code null}
+     */
+    public static <X> List<X> breadthFirstTraversal(X startVertex, Neighbours<X> neighbours, boolean byIdentity) {
+        Objects.requireNonNull(startVertex, "startVertex");
+        final Set<X> alreadyVisited = newVisitedSet(byIdentity);
+        final List<X> result = new ArrayList<>();
+        final ArrayDeque<X> queue = new ArrayDeque<>();
+        final Consumer<X> enqueue = vertex -> {
+            if (vertex != null && !alreadyVisited.contains(vertex)) {
+                queue.addLast(vertex);
+            }
+        };
+
+        queue.add(startVertex);
+        while (!queue.isEmpty()) {
+            final X next = queue.removeFirst();
+            if (alreadyVisited.add(next)) {
+                result.add(next);
+                neighbours.forEach(next, enqueue);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Like {@link #depthFirstSearch(Object, Function)}, but without creating streams or iterators per vertex.
+     *
+     * @param startVertex the vertex to start from
+     * @param neighbours  the edges of the graph
+     * @param byIdentity  whether vertices are compared by identity instead of {@link Object#equals(Object)}
+     * @param <X>         the type of vertices of the graph
+     * @return all vertices reachable from {@code startVertex} in the order they are visited (pre-order). Unmodifiable.
+     * @throws NullPointerException if {@code startVertex} is {@code null}
+     */
+    public static <X> List<X> depthFirstTraversal(X startVertex, Neighbours<X> neighbours, boolean byIdentity) {
+        Objects.requireNonNull(startVertex, "startVertex");
+        final Set<X> alreadyVisited = newVisitedSet(byIdentity);
+        final List<X> result = new ArrayList<>();
+        final ArrayDeque<X> stack = new ArrayDeque<>();
+        // neighbours of the current vertex, reused for all vertices
+        final List<X> buffer = new ArrayList<>();
+        final Consumer<X> collect = vertex -> {
+            if (vertex != null && !alreadyVisited.contains(vertex)) {
+                buffer.add(vertex);
+            }
+        };
+
+        stack.push(startVertex);
+        while (!stack.isEmpty()) {
+            final X next = stack.pop();
+            if (alreadyVisited.add(next)) {
+                result.add(next);
+                neighbours.forEach(next, collect);
+                // push in reverse so that the neighbours are popped in their original order (pre-ordering)
+                for (int i = buffer.size() - 1; i >= 0; i--) {
+                    stack.push(buffer.get(i));
+                }
+                buffer.clear();
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <X> Set<X> newVisitedSet(boolean byIdentity) {
+        return byIdentity ? Collections.newSetFromMap(new IdentityHashMap<>()) : new HashSet<>();
+    }
+
+    /**
+     * The edges of a graph for {@link #breadthFirstTraversal(Object, Neighbours, boolean)} and
+     * {@link #depthFirstTraversal(Object, Neighbours, boolean)}. Instead of returning its neighbours, a vertex passes
+     * them to a consumer, so that no intermediate collection is needed. {@code null} neighbours are ignored.
+     *
+     * @param <X> the type of vertices of the graph
+     */
+    @FunctionalInterface
+    public interface Neighbours<X> {
+        /**
+         * Passes all neighbours of the given vertex to the given action, in order.
+         *
+         * @param vertex a vertex
+         * @param action the action to perform for each neighbour
+         */
+        void forEach(X vertex, Consumer<X> action);
+
+        static <X> Neighbours<X> ofIterable(Function<? super X, ? extends Iterable<? extends X>> neighbours) {
+            return (vertex, action) -> neighbours.apply(vertex).forEach(action);
+        }
+
+        static <X> Neighbours<X> ofArray(Function<? super X, ? extends X[]> neighbours) {
+            return (vertex, action) -> {
+                for (X neighbour : neighbours.apply(vertex)) {
+                    action.accept(neighbour);
+                }
+            };
+        }
+    }
+
+    /**
+     * An {@link Iterator} that traverses a graph (defined implicitly by the {@code edges} constructor argument) in a
+     * breadth-first ordering.
+     * <p>
+     * The graph must not contain {@code null} vertices: The constructor throws a {@link NullPointerException} if
+     * {@code startVertex} is {@code null}, and {@link #next()} throws one if a vertex has a {@code null} neighbour.
+     *
+     * @param <X> the type of vertices of the graph
+     */
     public static class BreadthFirstIterator<X> extends AbstractGraphIterator<X> {
 
         public BreadthFirstIterator(X startVertex, Function<? super X, Stream<X>> edges) {
-            super(startVertex, edges, LinkedList::new); // LinkedList used as queue
+            super(startVertex, edges, ArrayDeque::new); // used as queue
         }
 
         @Override
@@ -47,13 +167,16 @@ public final class Iteration {
      * depth-first ordering. If the {@link Stream} returned by {@code edges} has a reliable encounter order (for example
      * because it comes from {@link List#stream()} or {@link LinkedHashSet#stream()} or something similar), then this
      * iterator will do the "pre-ordering" variant of depth-first transversal.
+     * <p>
+     * The graph must not contain {@code null} vertices: The constructor throws a {@link NullPointerException} if
+     * {@code startVertex} is {@code null}, and {@link #next()} throws one if a vertex has a {@code null} neighbour.
      *
      * @param <X> the type of vertices of the graph
      */
     public static class DepthFirstIterator<X> extends AbstractGraphIterator<X> {
 
         public DepthFirstIterator(X startVertex, Function<? super X, Stream<X>> edges) {
-            super(startVertex, edges, LinkedList::new); // LinkedList used as stack
+            super(startVertex, edges, ArrayDeque::new); // used as stack
         }
 
         @Override
@@ -74,12 +197,22 @@ public final class Iteration {
                 extends SequencedCollection<X>> supplier) {
             this.alreadyVisited = new LinkedHashSet<>();
             this.nextVertices = supplier.get();
-            this.nextVertices.add(startVertex);
-            this.edges = edges.andThen(stream -> stream.filter(not(alreadyVisited::contains)));
+            // ArrayDeque would reject null vertices anyway, but with a less helpful message
+            this.nextVertices.add(Objects.requireNonNull(startVertex, "startVertex"));
+            this.edges = edges.andThen(stream -> stream.map(AbstractGraphIterator::requireNonNullNeighbour)
+                    .filter(not(alreadyVisited::contains)));
+        }
+
+        private static <X> X requireNonNullNeighbour(X vertex) {
+            return Objects.requireNonNull(vertex, "graph must not contain null vertices");
         }
 
         @Override
         public boolean hasNext() {
+            // a vertex can be added more than once before it is visited
+            while (!nextVertices.isEmpty() && alreadyVisited.contains(nextVertices.getFirst())) {
+                nextVertices.removeFirst();
+            }
             return !nextVertices.isEmpty();
         }
 
@@ -11,6 +11,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Stream;
 
+import io.github.jhahnhro.enhancedcdi.util.CacheStatistics;
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.spi.EventContext;
@@ -132,6 +133,30 @@ class EnhancedEventTest {
             EnhancedEvent<U> childEvent2 = childEvent.selectUnchecked(typeU);
             assertThat(childEvent2.eventMetadata.getType()).isEqualTo(typeU);
         }
+
+        @Test
+        void givenSameTypeAndQualifiers_whenSelectUnchecked_thenReturnSameChild() {
+            final Type type = new TypeLiteral<List<String>>() {}.getType();
+
+            EnhancedEvent<List<String>> child1 = enhancedEvent.selectUnchecked(type,
+                                                                               new AnnotationLiteral<TestQualifier>() {});
+            EnhancedEvent<List<String>> child2 = enhancedEvent.selectUnchecked(type,
+                                                                               new AnnotationLiteral<TestQualifier>() {});
+            EnhancedEvent<List<String>> child3 = enhancedEvent.selectUnchecked(type);
+
+            assertThat(child1).isSameAs(child2).isNotSameAs(child3);
+            assertThat(enhancedEvent.getSelectionStatistics()).isEqualTo(new CacheStatistics(1, 2));
+        }
+
+        @Test
+        void givenCachedSelection_whenSelectUncheckedWithDuplicateQualifier_thenThrowIAE() {
+            final Type type = new TypeLiteral<List<String>>() {}.getType();
+            final Annotation qualifier = new AnnotationLiteral<TestQualifier>() {};
+            enhancedEvent.selectUnchecked(type, qualifier);
+
+            assertThatIllegalArgumentException().isThrownBy(() -> enhancedEvent.selectUnchecked(type, qualifier,
+                                                                                               qualifier));
+        }
     }
 
     @Nested
@@ -69,5 +69,40 @@ class AbstractBlockingPoolTest {
 
     }
 
+    @Nested
+    class TestReduceCapacity {
+
+        @Test
+        void givenPermitsAvailable_whenReducing_thenLowerCapacity() {
+            assertThat(pool.tryReduceCapacity(5)).isTrue();
+
+            assertThat(pool.capacity()).isEqualTo(5);
+        }
+
+        @Timeout(value = 1, unit = TimeUnit.SECONDS)
+        @Test
+        void givenReduced_whenLocking_thenAcquireOnlyRemainingPermits() {
+            pool.tryReduceCapacity(5);
+            final Lock lock = pool.getLock();
+
+            assertThat(lock.tryLock()).isTrue();
+            lock.unlock();
+        }
+
+        @Test
+        void givenLockedByOtherThread_whenReducing_thenDoNothing() throws InterruptedException {
+            final Thread locker = Thread.ofPlatform().start(() -> pool.getLock().lock());
+            locker.join();
+
+            assertThat(pool.tryReduceCapacity(5)).isFalse();
+            assertThat(pool.capacity()).isEqualTo(8);
+        }
+
+        @Test
+        void givenNewCapacityNotPositive_whenReducing_thenThrowIAE() {
+            assertThatThrownBy(() -> pool.tryReduceCapacity(0)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
 }
 
@@ -0,0 +1,386 @@
+package io.github.jhahnhro.enhancedcdi.pooled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class LazyBlockingPoolTest {
+
+    private static class MutableClock implements InstantSource {
+        private Instant now = Instant.EPOCH;
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+
+    private static class CountingLifecycle implements LazyBlockingPool.Lifecycle<Object> {
+        private final LazyBlockingPool.ValidationPolicy validationPolicy;
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger validated = new AtomicInteger();
+        final List<Object> validatedItems = new CopyOnWriteArrayList<>();
+        final List<Object> destroyed = new CopyOnWriteArrayList<>();
+        volatile boolean usable = true;
+        Duration keepAlive = null;
+        LazyBlockingPool.AdaptiveSizing adaptiveSizing = null;
+
+        CountingLifecycle(LazyBlockingPool.ValidationPolicy validationPolicy) {
+            this.validationPolicy = validationPolicy;
+        }
+
+        @Override
+        public Object createNew() {
+            created.incrementAndGet();
+            return new Object();
+        }
+
+        @Override
+        public boolean isUsable(Object item) {
+            validated.incrementAndGet();
+            validatedItems.add(item);
+            return usable;
+        }
+
+        @Override
+        public void destroy(Object item) {
+            destroyed.add(item);
+        }
+
+        @Override
+        public LazyBlockingPool.ValidationPolicy validationPolicy() {
+            return validationPolicy;
+        }
+
+        @Override
+        public Optional<Duration> keepAlive() {
+            return Optional.ofNullable(keepAlive);
+        }
+
+        @Override
+        public Optional<LazyBlockingPool.AdaptiveSizing> adaptiveSizing() {
+            return Optional.ofNullable(adaptiveSizing);
+        }
+    }
+
+    @Nested
+    class TestValidationPolicy {
+
+        @Test
+        void givenDefaultPolicy_whenBorrowingAndReturning_thenValidateBoth() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_BORROW_AND_RETURN);
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle)) {
+                pool.run(item -> {});
+                pool.run(item -> {});
+            }
+
+            // return, borrow, return
+            assertThat(lifecycle.validated).hasValue(3);
+            assertThat(lifecycle.created).hasValue(1);
+        }
+
+        @Test
+        void givenOnBorrowPolicy_whenReturning_thenDoNotValidate() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_BORROW);
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle)) {
+                pool.run(item -> {});
+                assertThat(lifecycle.validated).hasValue(0);
+
+                pool.run(item -> {});
+                assertThat(lifecycle.validated).hasValue(1);
+            }
+        }
+
+        @Test
+        void givenOnReturnPolicy_whenUnusableItemIsReturned_thenDestroyIt() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_RETURN);
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle)) {
+                lifecycle.usable = false;
+                pool.run(item -> {});
+
+                assertThat(lifecycle.destroyed).hasSize(1);
+                assertThat(lifecycle.validated).hasValue(1);
+
+                pool.run(item -> {});
+                assertThat(lifecycle.created).hasValue(2);
+                assertThat(lifecycle.validated).hasValue(2);
+            }
+        }
+
+        @Test
+        void givenIdlePolicy_whenBorrowing_thenOnlyValidateItemsIdleForLongEnough() throws InterruptedException {
+            final MutableClock clock = new MutableClock();
+            CountingLifecycle lifecycle = new CountingLifecycle(
+                    LazyBlockingPool.ValidationPolicy.whenIdleLongerThan(Duration.ofMinutes(1)));
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle, clock)) {
+                pool.run(item -> {});
+                clock.advance(Duration.ofSeconds(30));
+                pool.run(item -> {});
+                assertThat(lifecycle.validated).hasValue(0);
+
+                clock.advance(Duration.ofMinutes(1));
+                pool.run(item -> {});
+                assertThat(lifecycle.validated).hasValue(1);
+            }
+        }
+
+        @Test
+        void givenNoValidationOnReturn_whenActionFails_thenValidateAnyway() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(
+                    LazyBlockingPool.ValidationPolicy.inBackground(Duration.ofHours(1)));
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle)) {
+                lifecycle.usable = false;
+                try {
+                    pool.run(item -> {
+                        throw new IllegalStateException();
+                    });
+                } catch (IllegalStateException expected) {
+                    // expected
+                }
+
+                assertThat(lifecycle.validated).hasValue(1);
+                assertThat(lifecycle.destroyed).hasSize(1);
+            }
+        }
+
+        @Test
+        void testIllegalArguments() {
+            assertThatIllegalArgumentException().isThrownBy(
+                    () -> new LazyBlockingPool.ValidationPolicy(Duration.ofSeconds(-1), false, null));
+            assertThatIllegalArgumentException().isThrownBy(
+                    () -> LazyBlockingPool.ValidationPolicy.inBackground(Duration.ZERO));
+        }
+    }
+
+    @Nested
+    class TestBackgroundValidation {
+
+        private static final Duration INTERVAL = Duration.ofMillis(10);
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenUnusableIdleItem_whenBackgroundValidationRuns_thenDestroyIt() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.inBackground(INTERVAL));
+            lifecycle.usable = false;
+            try (var pool = new LazyBlockingPool<>(1, 1, lifecycle)) {
+                while (lifecycle.destroyed.isEmpty()) {
+                    Thread.sleep(INTERVAL.toMillis());
+                }
+
+                pool.run(item -> assertThat(item).isNotSameAs(lifecycle.destroyed.get(0)));
+                assertThat(lifecycle.created).hasValue(2);
+            }
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenItemInUse_whenBackgroundValidationRuns_thenSkipIt() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.inBackground(INTERVAL));
+            try (var pool = new LazyBlockingPool<>(2, 2, lifecycle)) {
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch finish = new CountDownLatch(1);
+                List<Object> itemInUse = new CopyOnWriteArrayList<>();
+                Thread holder = Thread.ofPlatform().start(() -> {
+                    try {
+                        pool.run(item -> {
+                            itemInUse.add(item);
+                            started.countDown();
+                            finish.await();
+                        });
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                try {
+                    started.await();
+                    final int validationsBefore = lifecycle.validatedItems.size();
+                    lifecycle.usable = false;
+
+                    while (lifecycle.destroyed.isEmpty()) {
+                        Thread.sleep(INTERVAL.toMillis());
+                    }
+                    // give the background task the chance to run a few more times
+                    Thread.sleep(5 * INTERVAL.toMillis());
+
+                    assertThat(lifecycle.destroyed).singleElement().isNotSameAs(itemInUse.get(0));
+                    assertThat(lifecycle.validatedItems.subList(validationsBefore,
+                                                                lifecycle.validatedItems.size())).isNotEmpty()
+                            .doesNotContain(itemInUse.get(0));
+                } finally {
+                    finish.countDown();
+                    holder.join();
+                }
+            }
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void whenClose_thenStopBackgroundValidation() throws InterruptedException {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.inBackground(INTERVAL));
+            var pool = new LazyBlockingPool<>(1, 1, lifecycle);
+            while (lifecycle.validated.get() == 0) {
+                Thread.sleep(INTERVAL.toMillis());
+            }
+
+            pool.close();
+            final int validatedBeforeClose = lifecycle.validated.get();
+            Thread.sleep(5 * INTERVAL.toMillis());
+
+            assertThat(lifecycle.validated).hasValue(validatedBeforeClose);
+            assertThat(lifecycle.destroyed).hasSize(1);
+        }
+    }
+
+    @Nested
+    class TestAdaptiveSizing {
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenBorrowerWaitedTooLong_whenBorrowing_thenGrow() throws Exception {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_RETURN);
+            lifecycle.adaptiveSizing = new LazyBlockingPool.AdaptiveSizing(4, Duration.ZERO);
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle)) {
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch finish = new CountDownLatch(1);
+                Thread holder = Thread.ofPlatform().start(() -> {
+                    try {
+                        pool.run(item -> {
+                            started.countDown();
+                            finish.await();
+                        });
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                started.await();
+
+                Thread waiter = Thread.ofPlatform().start(() -> {
+                    try {
+                        pool.run(item -> {});
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                while (waiter.getState() != Thread.State.WAITING) {
+                    Thread.onSpinWait();
+                }
+                finish.countDown();
+                holder.join();
+                waiter.join();
+
+                pool.awaitHousekeeping();
+                assertThat(pool.capacity()).isEqualTo(2);
+            }
+        }
+
+        @Test
+        void givenIdleItemsRetired_whenHousekeeping_thenShrinkToRemainingItems() throws InterruptedException {
+            final MutableClock clock = new MutableClock();
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_RETURN);
+            lifecycle.adaptiveSizing = new LazyBlockingPool.AdaptiveSizing(4, Duration.ZERO);
+            lifecycle.keepAlive = Duration.ofMinutes(1);
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle, clock)) {
+                pool.resize(3);
+                pool.run(item -> {});
+
+                clock.advance(Duration.ofMinutes(2));
+                pool.retireOldItems();
+
+                // the two slots that were never used are given up as well
+                assertThat(pool.capacity()).isEqualTo(1);
+                assertThat(lifecycle.destroyed).hasSize(1);
+            }
+        }
+
+        @Test
+        void givenMoreItemsThanCapacity_whenHousekeeping_thenRetireSurplusIdleItems() throws InterruptedException {
+            final MutableClock clock = new MutableClock();
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_RETURN);
+            lifecycle.adaptiveSizing = new LazyBlockingPool.AdaptiveSizing(4, Duration.ZERO);
+            lifecycle.keepAlive = Duration.ofMinutes(1);
+            try (var pool = new LazyBlockingPool<>(3, 3, lifecycle, clock)) {
+                // as if borrowers had created these items while the capacity was being reduced
+                assertThat(pool.tryReduceCapacity(1)).isTrue();
+
+                pool.retireOldItems();
+
+                assertThat(lifecycle.destroyed).hasSize(2);
+                pool.run(item -> {});
+                assertThat(lifecycle.created).hasValue(3);
+            }
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenItemsInUse_whenHousekeeping_thenShrinkWithoutWaitingForThem() throws InterruptedException {
+            final MutableClock clock = new MutableClock();
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_RETURN);
+            lifecycle.adaptiveSizing = new LazyBlockingPool.AdaptiveSizing(4, Duration.ZERO);
+            lifecycle.keepAlive = Duration.ofMinutes(1);
+            try (var pool = new LazyBlockingPool<>(0, 1, lifecycle, clock)) {
+                pool.resize(4);
+                CountDownLatch started = new CountDownLatch(2);
+                CountDownLatch finish = new CountDownLatch(1);
+                List<Thread> holders = new ArrayList<>();
+                try {
+                    for (int i = 0; i < 2; i++) {
+                        holders.add(Thread.ofPlatform().start(() -> {
+                            try {
+                                pool.run(item -> {
+                                    started.countDown();
+                                    finish.await();
+                                });
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }));
+                    }
+                    started.await();
+                    pool.run(item -> {});
+                    clock.advance(Duration.ofMinutes(2));
+
+                    // the idle item is retired, the two items in use keep their slots
+                    pool.retireOldItems();
+
+                    assertThat(pool.capacity()).isEqualTo(2);
+                    assertThat(lifecycle.destroyed).hasSize(1);
+                } finally {
+                    finish.countDown();
+                    for (Thread holder : holders) {
+                        holder.join();
+                    }
+                }
+            }
+        }
+
+        @Test
+        void givenMaxCapacityLessThanCapacity_whenCreatingPool_thenThrowIAE() {
+            CountingLifecycle lifecycle = new CountingLifecycle(LazyBlockingPool.ValidationPolicy.ON_RETURN);
+            lifecycle.adaptiveSizing = new LazyBlockingPool.AdaptiveSizing(1, Duration.ZERO);
+
+            assertThatThrownBy(() -> new LazyBlockingPool<>(0, 2, lifecycle)).isInstanceOf(
+                    IllegalArgumentException.class);
+            assertThatIllegalArgumentException().isThrownBy(
+                    () -> new LazyBlockingPool.AdaptiveSizing(4, Duration.ofSeconds(-1)));
+        }
+    }
+}
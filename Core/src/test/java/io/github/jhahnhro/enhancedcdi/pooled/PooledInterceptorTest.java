@@ -0,0 +1,99 @@
+package io.github.jhahnhro.enhancedcdi.pooled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+@EnableWeld
+class PooledInterceptorTest {
+
+    @WeldSetup
+    WeldInitiator w = WeldInitiator.from(new Weld().disableDiscovery()
+                                                 .addBeanClasses(PooledInstances.class, PooledInterceptor.class,
+                                                                 NonThreadSafeParser.class)
+                                                 .interceptors(PooledInterceptor.class)).build();
+
+    @Inject
+    NonThreadSafeParser parser;
+
+    @BeforeEach
+    void setUp() {
+        NonThreadSafeParser.INITIALIZED.set(0);
+    }
+
+    @Test
+    void givenSequentialInvocations_whenInvoking_thenReuseInstance() {
+        final int first = parser.parse("1");
+        final int second = parser.parse("2");
+
+        assertThat(first).isEqualTo(second);
+        assertThat(NonThreadSafeParser.INITIALIZED).hasValue(1);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void givenConcurrentInvocations_whenInvoking_thenUseDifferentInstances() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final CompletableFuture<Integer> blocked = CompletableFuture.supplyAsync(() -> parser.parseBlocking(started,
+                                                                                                           finish));
+        started.await();
+
+        final int concurrent = parser.parse("1");
+        finish.countDown();
+
+        assertThat(blocked.get()).isNotEqualTo(concurrent);
+        assertThat(NonThreadSafeParser.INITIALIZED).hasValue(2);
+    }
+
+    @ApplicationScoped
+    @Pooled(capacity = 2)
+    static class NonThreadSafeParser {
+        static final AtomicInteger INITIALIZED = new AtomicInteger();
+
+        private boolean inUse = false;
+
+        @PostConstruct
+        void init() {
+            INITIALIZED.incrementAndGet();
+        }
+
+        int parse(String input) {
+            assertThat(inUse).isFalse();
+            inUse = true;
+            try {
+                return System.identityHashCode(this);
+            } finally {
+                inUse = false;
+            }
+        }
+
+        int parseBlocking(CountDownLatch started, CountDownLatch finish) {
+            assertThat(inUse).isFalse();
+            inUse = true;
+            try {
+                started.countDown();
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inUse = false;
+            }
+            return System.identityHashCode(this);
+        }
+    }
+}
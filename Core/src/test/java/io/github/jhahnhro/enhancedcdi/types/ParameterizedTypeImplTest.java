@@ -3,9 +3,15 @@ package io.github.jhahnhro.enhancedcdi.types;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -86,6 +92,25 @@ class ParameterizedTypeImplTest {
         }
     }
 
+    @Nested
+    class TestInterning {
+        @Test
+        void givenEqualTypes_whenInterning_thenReturnSameInstance() {
+            final var first = new ParameterizedTypeImpl(Map.class, null, String.class, Integer.class);
+            final var second = new ParameterizedTypeImpl(Map.class, null, String.class, Integer.class);
+
+            assertThat(first.intern()).isSameAs(second.intern()).isEqualTo(first);
+        }
+
+        @Test
+        void givenDifferentTypes_whenInterning_thenReturnDifferentInstances() {
+            final var first = new ParameterizedTypeImpl(Map.class, null, String.class, Integer.class);
+            final var second = new ParameterizedTypeImpl(Map.class, null, Integer.class, String.class);
+
+            assertThat(first.intern()).isNotSameAs(second.intern()).isNotEqualTo(second.intern());
+        }
+    }
+
     @Nested
     class ConsistencyWithJDK {
         @ParameterizedTest
@@ -116,4 +141,55 @@ class ParameterizedTypeImplTest {
             assertThat(myType).hasToString(jdkType.toString());
         }
     }
+
+    @Nested
+    class TestSerialization {
+
+        /**
+         * {@code Map<String, List<Integer>>} serialized by the former record implementation.
+         */
+        private static final String SERIALIZED_RECORD = "rO0ABXNyADppby5naXRodWIuamhhaG5ocm8uZW5oYW5jZWRjZGkudHlwZXMuUGFy"
+                + "YW1ldGVyaXplZFR5cGVJbXBsAAAAAAAAAAACAANMABNhY3R1YWxUeXBlQXJndW1lbnRzdAAQTGphdmEvdXRpbC9MaXN0O0wACW93bmVy"
+                + "VHlwZXQAGExqYXZhL2xhbmcvcmVmbGVjdC9UeXBlO0wAB3Jhd1R5cGV0ABFMamF2YS9sYW5nL0NsYXNzO3hwc3IAEWphdmEudXRpbC5D"
+                + "b2xsU2VyV46rtjobqBEDAAFJAAN0YWd4cAAAAAF3BAAAAAJ2cgAQamF2YS5sYW5nLlN0cmluZ6DwpDh6O7NCAgAAeHBzcQB+AABzcQB+"
+                + "AAUAAAABdwQAAAABdnIAEWphdmEubGFuZy5JbnRlZ2VyEuKgpPeBhzgCAAFJAAV2YWx1ZXhyABBqYXZhLmxhbmcuTnVtYmVyhqyVHQuU"
+                + "4IsCAAB4cHhwdnIADmphdmEudXRpbC5MaXN0AAAAAAAAAAAAAAB4cHhwdnIADWphdmEudXRpbC5NYXAAAAAAAAAAAAAAAHhw";
+
+        private final ParameterizedTypeImpl type = new ParameterizedTypeImpl(
+                Map.class, null, String.class, new ParameterizedTypeImpl(List.class, null, Integer.class));
+
+        @Test
+        void givenCachedHashCode_whenRoundTrip_thenEqualWithSameHashCode() throws Exception {
+            final int hashCode = type.hashCode();
+
+            final Object deserialized = deserialize(serialize(type));
+
+            assertThat(deserialized).isEqualTo(type).isNotSameAs(type);
+            assertThat(deserialized.hashCode()).isEqualTo(hashCode);
+            assertThat(deserialized.hashCode()).isEqualTo(new TypeLiteral<Map<String, List<Integer>>>() {}.getType()
+                                                                  .hashCode());
+        }
+
+        @Test
+        void givenDataOfFormerRecord_whenDeserialize_thenEqual() throws Exception {
+            final Object deserialized = deserialize(Base64.getDecoder().decode(SERIALIZED_RECORD));
+
+            assertThat(deserialized).isEqualTo(type);
+            assertThat(deserialized.hashCode()).isEqualTo(type.hashCode());
+        }
+
+        private static byte[] serialize(Object object) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(object);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                return in.readObject();
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package io.github.jhahnhro.enhancedcdi.types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class TypeCacheTest {
+
+    private final AtomicInteger computed = new AtomicInteger();
+    private final TypeCache<String> cache = new TypeCache<>(type -> {
+        computed.incrementAndGet();
+        return type.getTypeName();
+    }, 16);
+
+    /**
+     * Defines a copy of {@link ForeignParameterizedType} in a new class loader and returns {@code List<String>}
+     * implemented by that copy, i.e. a key that only mentions JDK classes, but whose own class is not a JDK class.
+     */
+    private static Type foreignListOfString(ClassLoader parent) throws IOException, ReflectiveOperationException {
+        final Class<?> implementation = new IsolatingClassLoader(parent).define(ForeignParameterizedType.class);
+        return (Type) implementation.getConstructor(Class.class, Type[].class)
+                .newInstance(List.class, new Type[]{String.class});
+    }
+
+    @Nested
+    class TestGet {
+
+        @Test
+        void givenSameKey_whenGet_thenComputeOnce() {
+            final Type type = new ParameterizedTypeImpl(List.class, null, String.class);
+
+            assertThat(cache.get(type)).isEqualTo(cache.get(type)).isEqualTo("java.util.List<java.lang.String>");
+            assertThat(computed).hasValue(1);
+        }
+
+        @Test
+        void givenKeyImplementedInChildClassLoader_whenGet_thenComputeOnce() throws Exception {
+            final Type type = foreignListOfString(TypeCacheTest.class.getClassLoader());
+
+            cache.get(type);
+            cache.get(type);
+
+            assertThat(computed).hasValue(1);
+        }
+
+        @Test
+        void givenKeyImplementedInUnrelatedClassLoader_whenGet_thenDoNotCache() throws Exception {
+            final Type type = foreignListOfString(ClassLoader.getPlatformClassLoader());
+
+            cache.get(type);
+            cache.get(type);
+
+            assertThat(computed).hasValue(2);
+        }
+    }
+
+    @Nested
+    class TestClassUnloading {
+
+        @Test
+        void givenKeyImplementedInChildClassLoader_whenGet_thenDoNotPreventUnloading() throws Exception {
+            final WeakReference<ClassLoader> loader = getForeignKey(TypeCacheTest.class.getClassLoader());
+
+            for (int i = 0; i < 20 && loader.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            assertThat(loader.get()).isNull();
+            assertThat(computed).hasValue(1);
+        }
+
+        private WeakReference<ClassLoader> getForeignKey(ClassLoader parent) throws Exception {
+            final Type type = foreignListOfString(parent);
+            cache.get(type);
+            return new WeakReference<>(type.getClass().getClassLoader());
+        }
+    }
+
+    private static final class IsolatingClassLoader extends ClassLoader {
+        IsolatingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(Class<?> clazz) throws IOException {
+            final String resource = clazz.getName().replace('.', '/') + ".class";
+            try (InputStream in = clazz.getClassLoader().getResourceAsStream(resource)) {
+                final byte[] bytes = in.readAllBytes();
+                return defineClass(clazz.getName(), bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    /**
+     * A {@link ParameterizedType} like the ones of other libraries. Only refers to JDK classes, so that it can be
+     * defined in unrelated class loaders.
+     */
+    public static final class ForeignParameterizedType implements ParameterizedType {
+        private final Class<?> rawType;
+        private final Type[] typeArguments;
+
+        public ForeignParameterizedType(Class<?> rawType, Type[] typeArguments) {
+            this.rawType = rawType;
+            this.typeArguments = typeArguments.clone();
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return typeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ParameterizedType that && that.getOwnerType() == null && rawType.equals(
+                    that.getRawType()) && Arrays.equals(typeArguments, that.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(typeArguments) ^ rawType.hashCode();
+        }
+    }
+}
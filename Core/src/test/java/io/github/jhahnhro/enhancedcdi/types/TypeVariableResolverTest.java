@@ -105,6 +105,19 @@ class TypeVariableResolverTest {
                        new TypeLiteral<Iterable<Integer>>() {}.getType(), Object.class));
     }
 
+    @Test
+    void givenSameType_whenGettingCachedTypeClosure_thenReturnSameResult() {
+        final Type typeOfArrayListOfInteger = new TypeLiteral<ArrayList<Integer>>() {}.getType();
+
+        final Set<Type> typeClosure = TypeVariableResolver.resolvedTypeClosureOf(typeOfArrayListOfInteger);
+
+        assertThat(typeClosure).isEqualTo(TypeVariableResolver.withKnownTypesOf(typeOfArrayListOfInteger)
+                                                  .resolvedTypeClosure(typeOfArrayListOfInteger))
+                .contains(new TypeLiteral<List<Integer>>() {}.getType());
+        assertThat(TypeVariableResolver.resolvedTypeClosureOf(
+                new TypeLiteral<ArrayList<Integer>>() {}.getType())).isSameAs(typeClosure);
+    }
+
     @Nested
     class TestKnownTypes {
 
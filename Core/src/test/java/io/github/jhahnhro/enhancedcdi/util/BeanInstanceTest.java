@@ -0,0 +1,168 @@
+package io.github.jhahnhro.enhancedcdi.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.spi.Contextual;
+import jakarta.enterprise.context.spi.CreationalContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class BeanInstanceTest {
+
+    private Contextual<Object> contextual;
+    private CreationalContext<Object> creationalContext;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        contextual = mock(Contextual.class);
+        creationalContext = mock(CreationalContext.class);
+        when(contextual.create(any())).then(invocation -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+    }
+
+    @Nested
+    class TestInstance {
+
+        @Test
+        void givenNewContextualInstance_thenNotCreatedYet() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+
+            assertThat(beanInstance.state()).isEqualTo(BeanInstance.State.NOT_INITIALIZED);
+            verify(contextual, never()).create(any());
+        }
+
+        @Test
+        void whenInstanceCalledRepeatedly_thenCreateOnceAndReturnSameInstance() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+
+            final Object instance = beanInstance.instance();
+
+            assertThat(beanInstance.instance()).isSameAs(instance);
+            assertThat(beanInstance.state()).isEqualTo(BeanInstance.State.INITIALIZED);
+            verify(contextual).create(creationalContext);
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenConcurrentCalls_whenInstance_thenCreateExactlyOnce() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return beanInstance.instance();
+                }, Thread::startVirtualThread));
+            }
+
+            start.countDown();
+
+            assertThat(futures.stream().map(CompletableFuture::join).distinct()).hasSize(1);
+            assertThat(created).hasValue(1);
+        }
+
+        @Test
+        void givenExistingInstance_whenOfContextualInstance_thenInitializedWithoutCreating() {
+            final Object existing = new Object();
+
+            final BeanInstance<Object> beanInstance = BeanInstance.ofContextualInstance(contextual, creationalContext,
+                                                                                        existing);
+
+            assertThat(beanInstance.state()).isEqualTo(BeanInstance.State.INITIALIZED);
+            assertThat(beanInstance.instance()).isSameAs(existing);
+            verify(contextual, never()).create(any());
+        }
+    }
+
+    @Nested
+    class TestDestroy {
+
+        @Test
+        void givenInitialized_whenDestroy_thenDestroyOnce() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+            final Object instance = beanInstance.instance();
+
+            beanInstance.destroy();
+            beanInstance.destroy();
+
+            verify(contextual).destroy(instance, creationalContext);
+            assertThat(beanInstance.state()).isEqualTo(BeanInstance.State.DESTROYED);
+        }
+
+        @Test
+        void givenDestroyed_whenInstance_thenThrowISE() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+            beanInstance.instance();
+            beanInstance.destroy();
+
+            assertThatThrownBy(beanInstance::instance).isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        void givenNotInitialized_whenDestroy_thenDoNotDestroy() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+
+            beanInstance.destroy();
+
+            verify(contextual, never()).destroy(any(), any());
+            assertThat(beanInstance.state()).isEqualTo(BeanInstance.State.NOT_INITIALIZED);
+        }
+
+        @Test
+        void whenDestroyingContextual_thenInstanceNoLongerReturned() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+            beanInstance.instance();
+            final List<Throwable> duringDestruction = new ArrayList<>();
+            doAnswer(invocation -> {
+                try {
+                    beanInstance.instance();
+                } catch (IllegalStateException e) {
+                    duringDestruction.add(e);
+                }
+                return null;
+            }).when(contextual).destroy(any(), any());
+
+            beanInstance.destroy();
+
+            assertThat(duringDestruction).hasSize(1);
+        }
+
+        @Test
+        void givenOtherObject_whenDestroyInstance_thenDoNotDestroy() {
+            final BeanInstance<Object> beanInstance = BeanInstance.createContextualInstance(contextual,
+                                                                                            creationalContext);
+            final Object instance = beanInstance.instance();
+
+            assertThat(beanInstance.destroy(new Object())).isFalse();
+            assertThat(beanInstance.destroy(instance)).isTrue();
+            verify(contextual).destroy(instance, creationalContext);
+        }
+    }
+}
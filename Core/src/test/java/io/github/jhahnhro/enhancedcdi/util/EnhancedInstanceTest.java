@@ -2,6 +2,8 @@ package io.github.jhahnhro.enhancedcdi.util;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Retention;
@@ -12,8 +14,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import io.github.jhahnhro.enhancedcdi.metadata.InjectionPointImpl;
+import io.github.jhahnhro.enhancedcdi.types.ParameterizedTypeImpl;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.Dependent;
@@ -24,6 +29,8 @@ import jakarta.enterprise.inject.Instance;
 import jakarta.enterprise.inject.Instance.Handle;
 import jakarta.enterprise.inject.Produces;
 import jakarta.enterprise.inject.UnsatisfiedResolutionException;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.InjectionPoint;
 import jakarta.enterprise.util.AnnotationLiteral;
 import jakarta.enterprise.util.TypeLiteral;
@@ -278,6 +285,31 @@ class EnhancedInstanceTest {
             assertThat(childEvent2.injectionPoint.getType()).isEqualTo(typeU);
         }
 
+        @Test
+        void givenSameTypeAndQualifiers_whenSelectUnchecked_thenReturnSameChild(
+                @Any EnhancedInstance<Object> enhancedInstance) {
+            final Type type = new TypeLiteral<Map<Integer, String>>() {}.getType();
+
+            var child1 = enhancedInstance.selectUnchecked(type, new AnnotationLiteral<MyQualifier>() {});
+            var child2 = enhancedInstance.selectUnchecked(type, new AnnotationLiteral<MyQualifier>() {});
+            var child3 = enhancedInstance.selectUnchecked(type);
+
+            assertThat(child1).isSameAs(child2).isNotSameAs(child3);
+            assertThat(child1.get()).isSameAs(qualifiedMap);
+            assertThat(enhancedInstance.getSelectionStatistics()).isEqualTo(new CacheStatistics(1, 2));
+        }
+
+        @Test
+        void givenCachedSelection_whenSelectUncheckedWithDuplicateQualifier_thenThrowIAE(
+                @Any EnhancedInstance<Object> enhancedInstance) {
+            final Type type = new TypeLiteral<Map<Integer, String>>() {}.getType();
+            final Annotation qualifier = new AnnotationLiteral<MyQualifier>() {};
+            enhancedInstance.selectUnchecked(type, qualifier);
+
+            assertThatIllegalArgumentException().isThrownBy(
+                    () -> enhancedInstance.selectUnchecked(type, qualifier, qualifier));
+        }
+
         @Nested
         class TestInjectionPoint {
 
@@ -305,4 +337,76 @@ class EnhancedInstanceTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class TestResolutionCache {
+
+        private final BeanManager beanManager = mock(BeanManager.class);
+        @SuppressWarnings("unchecked")
+        private final Instance<MyInterface> delegate = mock(Instance.class);
+        private final EnhancedInstance<MyInterface> instance;
+
+        TestResolutionCache() {
+            when(beanManager.getInjectableReference(any(), any())).thenReturn(delegate);
+            when(beanManager.isMatchingBean(any(), any(), any(), any())).thenReturn(true);
+            when(beanManager.isNormalScope(ApplicationScoped.class)).thenReturn(true);
+            this.instance = new EnhancedInstance<>(beanManager, new InjectionPointImpl(
+                    new ParameterizedTypeImpl(EnhancedInstance.class, null, MyInterface.class)));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Handle<MyInterface> handle(Class<? extends Annotation> scope, Supplier<MyInterface> instances) {
+            final Bean<MyInterface> bean = mock(Bean.class);
+            when(bean.getScope()).then(invocation -> scope);
+            final Handle<MyInterface> handle = mock(Handle.class);
+            when(handle.getBean()).thenReturn(bean);
+            when(handle.get()).then(invocation -> instances.get());
+            return handle;
+        }
+
+        @SafeVarargs
+        private void resolvesTo(Handle<MyInterface>... handles) {
+            when(delegate.handlesStream()).then(invocation -> Stream.of(handles));
+        }
+
+        @Test
+        void givenNormalScopedBean_whenGetRepeatedly_thenReturnCachedReferenceWithoutResolving() {
+            final MyInterface clientProxy = new AppScopedBean();
+            final Handle<MyInterface> handle = handle(ApplicationScoped.class, () -> clientProxy);
+            resolvesTo(handle);
+
+            assertThat(instance.get()).isSameAs(clientProxy);
+            clearInvocations(delegate, beanManager, handle);
+
+            assertThat(instance.get()).isSameAs(clientProxy);
+            assertThat(instance.get()).isSameAs(clientProxy);
+            verifyNoInteractions(delegate, beanManager, handle);
+        }
+
+        @Test
+        void givenDependentBean_whenGetRepeatedly_thenResolveEveryTime() {
+            final Handle<MyInterface> handle = handle(Dependent.class, DependentBean::new);
+            resolvesTo(handle);
+
+            final MyInterface first = instance.get();
+            final MyInterface second = instance.get();
+
+            assertThat(first).isNotSameAs(second);
+            verify(handle, times(2)).get();
+        }
+
+        @Test
+        void whenIsUnsatisfiedAndIsAmbiguousRepeatedly_thenMatchBeansOnlyOnce() {
+            when(delegate.isAmbiguous()).thenReturn(true);
+            resolvesTo(handle(Dependent.class, DependentBean::new), handle(Dependent.class, DependentBean::new));
+
+            assertThat(instance.isUnsatisfied()).isFalse();
+            assertThat(instance.isAmbiguous()).isTrue();
+            assertThat(instance.isUnsatisfied()).isFalse();
+            assertThat(instance.isAmbiguous()).isTrue();
+
+            verify(beanManager, times(2)).isMatchingBean(any(), any(), any(), any());
+            verify(delegate, times(1)).handlesStream();
+        }
+    }
+}
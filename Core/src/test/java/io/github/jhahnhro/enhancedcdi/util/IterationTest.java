@@ -0,0 +1,137 @@
+package io.github.jhahnhro.enhancedcdi.util;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class IterationTest {
+
+    /**
+     * a -> b, c; b -> d; c -> d, a (a cycle); d -> nothing
+     */
+    private static final Map<String, List<String>> GRAPH = Map.of("a", List.of("b", "c"), "b", List.of("d"), "c",
+                                                                  List.of("d", "a"), "d", List.of());
+    private static final Iteration.Neighbours<String> NEIGHBOURS = Iteration.Neighbours.ofIterable(GRAPH::get);
+    private static final Function<String, Stream<String>> EDGES = vertex -> GRAPH.get(vertex).stream();
+
+    @Nested
+    class TestBreadthFirst {
+
+        @Test
+        void givenGraphWithCycle_whenTraversal_thenVisitEachVertexOnceInBreadthFirstOrder() {
+            assertThat(Iteration.breadthFirstTraversal("a", NEIGHBOURS, false)).containsExactly("a", "b", "c", "d");
+        }
+
+        @Test
+        void whenTraversal_thenSameOrderAsSearch() {
+            assertThat(Iteration.breadthFirstTraversal("c", NEIGHBOURS, false)).containsExactlyElementsOf(
+                    Iteration.breadthFirstSearch("c", EDGES));
+        }
+
+        @Test
+        void whenIterator_thenSameOrderAsTraversal() {
+            final List<String> visited = new ArrayList<>();
+            new Iteration.BreadthFirstIterator<>("a", EDGES).forEachRemaining(visited::add);
+
+            assertThat(visited).containsExactly("a", "b", "c", "d");
+        }
+    }
+
+    @Nested
+    class TestDepthFirst {
+
+        @Test
+        void givenGraphWithCycle_whenTraversal_thenVisitEachVertexOnceInPreOrder() {
+            assertThat(Iteration.depthFirstTraversal("a", NEIGHBOURS, false)).containsExactly("a", "b", "d", "c");
+        }
+
+        @Test
+        void whenTraversal_thenSameOrderAsSearch() {
+            assertThat(Iteration.depthFirstTraversal("c", NEIGHBOURS, false)).containsExactlyElementsOf(
+                    Iteration.depthFirstSearch("c", EDGES));
+        }
+
+        @Test
+        void whenIterator_thenSameOrderAsTraversal() {
+            final List<String> visited = new ArrayList<>();
+            new Iteration.DepthFirstIterator<>("a", EDGES).forEachRemaining(visited::add);
+
+            assertThat(visited).containsExactly("a", "b", "d", "c");
+        }
+    }
+
+    @Nested
+    class TestVertices {
+
+        @Test
+        void givenVertexReachedTwiceBeforeVisited_whenIterate_thenReturnItOnce() {
+            final List<String> breadthFirst = new ArrayList<>();
+            new Iteration.BreadthFirstIterator<>("a", EDGES).forEachRemaining(breadthFirst::add);
+            final List<String> depthFirst = new ArrayList<>();
+            new Iteration.DepthFirstIterator<>("c", EDGES).forEachRemaining(depthFirst::add);
+
+            // d is a neighbour of both b and c
+            assertThat(breadthFirst).doesNotHaveDuplicates();
+            assertThat(depthFirst).doesNotHaveDuplicates();
+        }
+
+        @Test
+        void givenEqualButNotIdenticalVertices_whenTraversalByIdentity_thenVisitBoth() {
+            final String start = new String("x");
+            final String other = new String("x");
+            final Iteration.Neighbours<String> neighbours = (vertex, action) -> action.accept(
+                    vertex == start ? other : start);
+
+            assertThat(Iteration.breadthFirstTraversal(start, neighbours, true)).hasSize(2);
+            assertThat(Iteration.depthFirstTraversal(start, neighbours, true)).hasSize(2);
+            assertThat(Iteration.breadthFirstTraversal(start, neighbours, false)).hasSize(1);
+            assertThat(Iteration.depthFirstTraversal(start, neighbours, false)).hasSize(1);
+        }
+
+        @Test
+        void givenNullNeighbours_whenTraversal_thenSkipThem() {
+            final Iteration.Neighbours<String> neighbours = Iteration.Neighbours.ofArray(
+                    vertex -> vertex.equals("a") ? new String[]{null, "b", null} : new String[0]);
+
+            assertThat(Iteration.breadthFirstTraversal("a", neighbours, false)).containsExactly("a", "b");
+            assertThat(Iteration.depthFirstTraversal("a", neighbours, false)).containsExactly("a", "b");
+        }
+
+        @Test
+        void givenNullStartVertex_thenThrowNPE() {
+            assertThatNullPointerException().isThrownBy(() -> Iteration.breadthFirstTraversal(null, NEIGHBOURS, false));
+            assertThatNullPointerException().isThrownBy(() -> Iteration.depthFirstTraversal(null, NEIGHBOURS, false));
+            assertThatNullPointerException().isThrownBy(() -> new Iteration.BreadthFirstIterator<>(null, EDGES));
+            assertThatNullPointerException().isThrownBy(() -> new Iteration.DepthFirstIterator<>(null, EDGES));
+        }
+
+        @Test
+        void givenNullNeighbour_whenIterate_thenThrowNPE() {
+            final Function<String, Stream<String>> edges = vertex -> Arrays.stream(new String[]{null});
+
+            assertThatNullPointerException().isThrownBy(() -> new Iteration.BreadthFirstIterator<>("a", edges).next())
+                    .withMessageContaining("null vertices");
+            assertThatNullPointerException().isThrownBy(() -> new Iteration.DepthFirstIterator<>("a", edges).next())
+                    .withMessageContaining("null vertices");
+        }
+
+        @Test
+        void givenIteratorExhausted_whenNext_thenThrowNoSuchElementException() {
+            final Iteration.BreadthFirstIterator<String> iterator = new Iteration.BreadthFirstIterator<>("d", EDGES);
+            iterator.next();
+
+            assertThat(iterator.hasNext()).isFalse();
+            assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(iterator::next);
+            assertThat(iterator.getAlreadyVisited()).containsExactly("d");
+        }
+    }
+}
@@ -5,7 +5,8 @@ import java.util.Objects;
 
 import com.rabbitmq.client.ConnectionFactory;
 
-public record Configuration(ConnectionFactory connectionFactory, Retry initialConnectionRetry, int maxMessageSize) {
+public record Configuration(ConnectionFactory connectionFactory, Retry initialConnectionRetry, int maxMessageSize,
+                            ChannelAffinity publisherChannelAffinity) {
 
     private static final System.Logger LOG = System.getLogger(Configuration.class.getName());
 
@@ -13,12 +14,21 @@ public record Configuration(ConnectionFactory connectionFactory, Retry initialCo
         connectionFactory = validate(connectionFactory);
         Objects.requireNonNull(initialConnectionRetry);
         validate(maxMessageSize);
+        Objects.requireNonNull(publisherChannelAffinity);
+    }
+
+    public Configuration(ConnectionFactory connectionFactory, Retry initialConnectionRetry, int maxMessageSize) {
+        this(connectionFactory, initialConnectionRetry, maxMessageSize, ChannelAffinity.NONE);
     }
 
     public Configuration(ConnectionFactory connectionFactory, Retry initialConnectionRetry) {
         this(connectionFactory, initialConnectionRetry, 0x8000000 /* = 2^27 = 128 MiB */);
     }
 
+    public Configuration withPublisherChannelAffinity(ChannelAffinity publisherChannelAffinity) {
+        return new Configuration(connectionFactory, initialConnectionRetry, maxMessageSize, publisherChannelAffinity);
+    }
+
     private void validate(int maxMessageSize) {
         if (maxMessageSize < 0) {
             throw new IllegalArgumentException("MaxMessageSize must be non-negative");
@@ -37,5 +47,24 @@ public record Configuration(ConnectionFactory connectionFactory, Retry initialCo
         return connectionFactory;
     }
 
+    /**
+     * Determines which channel is used when a message is published.
+     */
+    public enum ChannelAffinity {
+        /**
+         * Every publication borrows a channel from a pool of channels shared by all threads.
+         */
+        NONE,
+        /**
+         * Every platform thread publishes on its own channel, which it re-uses without going through the shared pool.
+         * The thread's channel is created on first use. At most half of the connection's channel max is reserved for
+         * such channels and the shared pool is shrunk accordingly; if no more channels can be opened, the shared pool
+         * is used instead. The channels of terminated threads are closed lazily, the next time another thread needs a
+         * channel. Virtual threads and nested publications from within another publication always use the shared pool.
+         * <p>
+         * Useful if a limited number of long-lived threads, e.g. the threads handling incoming deliveries, publish a lot
+         * of messages.
+         */
+        THREAD
+    }
 }
-
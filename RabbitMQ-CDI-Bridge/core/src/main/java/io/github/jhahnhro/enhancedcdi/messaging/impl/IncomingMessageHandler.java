@@ -5,6 +5,14 @@ import static java.lang.System.Logger.Level.WARNING;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.rabbitmq.client.Envelope;
 import io.github.jhahnhro.enhancedcdi.messaging.FromExchange;
@@ -23,6 +31,13 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.event.ObserverException;
 import jakarta.enterprise.event.ObservesAsync;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.EventContext;
+import jakarta.enterprise.inject.spi.EventMetadata;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.ObserverMethod;
 import jakarta.inject.Inject;
 
 /**
@@ -33,6 +48,8 @@ import jakarta.inject.Inject;
 class IncomingMessageHandler {
 
     private static final System.Logger LOG = System.getLogger(IncomingMessageHandler.class.getName());
+    private static final int MAX_CACHED_ROUTES = 256;
+    private static final int MAX_PAYLOAD_CLASSES_PER_ROUTE = 16;
     /**
      * Fired if preprocessing has finished and payload was deserialized
      */
@@ -52,6 +69,34 @@ class IncomingMessageHandler {
     @Inject
     ExceptionMapping exceptionMapping;
 
+    @Inject
+    BeanManager beanManager;
+
+    /**
+     * Unresolvable in CDI Lite environments that do not support portable extensions.
+     */
+    @Inject
+    Instance<RabbitMqExtension> extension;
+
+    /**
+     * The dispatchers of the routes that messages were most recently received on, so that the qualifier literals are
+     * only created once per route and the container can reuse its observer resolution. Holds at most
+     * {@value MAX_CACHED_ROUTES} routes and evicts the least recently used one, so that a burst of one-off routing keys
+     * does not keep the busy routes out of the cache for good. Guarded by itself.
+     */
+    private final Map<Route, RouteDispatcher> dispatchersByRoute = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Route, RouteDispatcher> eldest) {
+            return size() > MAX_CACHED_ROUTES;
+        }
+    };
+    /**
+     * The observer of each queue and exchange that might be notified directly, see {@link #candidateFor(Route)}. The
+     * routing key is not part of the key, because the {@link RabbitMqExtension} only knows observers by queue and
+     * exchange. At most {@value MAX_CACHED_ROUTES} entries.
+     */
+    private final Map<Source, Optional<ObserverMethod<?>>> candidatesBySource = new ConcurrentHashMap<>();
+
     public void handleDelivery(@ObservesAsync InternalDelivery incomingDelivery) {
         final Incoming<byte[]> rawMessage = incomingDelivery.rawMessage();
         final Acknowledgement acknowledgement = incomingDelivery.ack();
@@ -132,12 +177,144 @@ class IncomingMessageHandler {
     }
 
     private void fireEvent(Incoming<?> message) {
-        processedEvent.select(getStandardQualifiers(message.envelope(), message.queue())).fire(message.content());
+        final Envelope envelope = message.envelope();
+        final Route route = new Route(message.queue(), envelope.getExchange(), envelope.getRoutingKey(),
+                                      envelope.isRedeliver());
+        final RouteDispatcher cached;
+        synchronized (dispatchersByRoute) {
+            cached = dispatchersByRoute.get(route);
+        }
+        if (cached != null) {
+            cached.fire(message.content());
+            return;
+        }
+
+        // created outside the lock, because it asks the container. Only routes that receive further messages are
+        // worth resolving the observers for, so the first message is always fired.
+        final RouteDispatcher dispatcher = new RouteDispatcher(route);
+        synchronized (dispatchersByRoute) {
+            dispatchersByRoute.putIfAbsent(route, dispatcher);
+        }
+        dispatcher.event.fire(message.content());
+    }
+
+    /**
+     * Returns the observer that messages of the given route might be passed to directly, i.e. the only observer that
+     * the {@link RabbitMqExtension} knows for the route's queue and exchange, if that one is directly notifiable.
+     *
+     * @param route the route of a message
+     * @return the candidate for direct notification, {@code null} if there is none
+     */
+    private ObserverMethod<?> candidateFor(Route route) {
+        final Source source = new Source(route.queue(), route.exchange());
+        final Optional<ObserverMethod<?>> cached = candidatesBySource.get(source);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        final Optional<ObserverMethod<?>> candidate = Optional.ofNullable(findCandidate(source));
+        if (candidatesBySource.size() < MAX_CACHED_ROUTES) {
+            candidatesBySource.putIfAbsent(source, candidate);
+        }
+        return candidate.orElse(null);
+    }
+
+    private ObserverMethod<?> findCandidate(Source source) {
+        if (!extension.isResolvable()) {
+            return null;
+        }
+        final Set<RabbitMqExtension.KnownObserver> knownObservers = extension.get()
+                .knownObserversOf(source.queue(), source.exchange());
+        if (knownObservers.size() != 1) {
+            return null;
+        }
+        final RabbitMqExtension.KnownObserver knownObserver = knownObservers.iterator().next();
+        return knownObserver.directlyNotifiable() ? knownObserver.observerMethod() : null;
     }
 
-    private Annotation[] getStandardQualifiers(Envelope messageEnvelope, String queueName) {
-        return new Annotation[]{new FromQueue.Literal(queueName), new FromExchange.Literal(
-                messageEnvelope.getExchange()), new WithRoutingKey.Literal(
-                messageEnvelope.getRoutingKey()), Redelivered.Literal.of(messageEnvelope.isRedeliver())};
+    private static Annotation[] getStandardQualifiers(Route route) {
+        return new Annotation[]{new FromQueue.Literal(route.queue()), new FromExchange.Literal(
+                route.exchange()), new WithRoutingKey.Literal(route.routingKey()), Redelivered.Literal.of(
+                route.redelivered())};
+    }
+
+    private record Route(String queue, String exchange, String routingKey, boolean redelivered) {}
+
+    private record Source(String queue, String exchange) {}
+
+    /**
+     * Fires the messages of a single route. If the {@link RabbitMqExtension} knows exactly one observer of the route's
+     * queue and exchange, and the container confirms that it is the only observer of a payload class, then payloads of
+     * that class are passed to the observer directly instead of firing an event and resolving the observers again.
+     */
+    private final class RouteDispatcher {
+        private final Event<Object> event;
+        private final Annotation[] qualifiers;
+        private final Set<Annotation> metadataQualifiers;
+        private final ObserverMethod<?> candidate;
+        private final Map<Class<?>, Boolean> directlyNotifiable = new ConcurrentHashMap<>();
+
+        RouteDispatcher(Route route) {
+            final Annotation[] standardQualifiers = getStandardQualifiers(route);
+            this.event = processedEvent.select(standardQualifiers);
+            this.candidate = candidateFor(route);
+            if (candidate == null) {
+                this.qualifiers = null;
+                this.metadataQualifiers = null;
+                return;
+            }
+
+            // the qualifier of processedEvent, which the container adds when firing
+            final Annotation incoming = io.github.jhahnhro.enhancedcdi.messaging.Incoming.Literal.INSTANCE;
+            this.qualifiers = Arrays.copyOf(standardQualifiers, standardQualifiers.length + 1);
+            this.qualifiers[standardQualifiers.length] = incoming;
+            final Set<Annotation> allQualifiers = new HashSet<>(Arrays.asList(this.qualifiers));
+            allQualifiers.add(Any.Literal.INSTANCE);
+            this.metadataQualifiers = Set.copyOf(allQualifiers);
+        }
+
+        void fire(Object payload) {
+            if (candidate != null && payload != null && isDirectlyNotifiable(payload)) {
+                notifyDirectly(candidate, payload);
+            } else {
+                event.fire(payload);
+            }
+        }
+
+        private boolean isDirectlyNotifiable(Object payload) {
+            final Class<?> payloadClass = payload.getClass();
+            final Boolean cached = directlyNotifiable.get(payloadClass);
+            if (cached != null) {
+                return cached;
+            }
+            final Set<? extends ObserverMethod<?>> observers = beanManager.resolveObserverMethods(payload, qualifiers);
+            final boolean result = observers.size() == 1 && observers.contains(candidate);
+            if (directlyNotifiable.size() < MAX_PAYLOAD_CLASSES_PER_ROUTE) {
+                directlyNotifiable.putIfAbsent(payloadClass, result);
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> void notifyDirectly(ObserverMethod<T> observer, Object payload) {
+            final EventMetadata metadata = new DirectEventMetadata(payload.getClass(), metadataQualifiers);
+            try {
+                observer.notify(new DirectEventContext<>((T) payload, metadata));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                // observers may throw checked exceptions, wrap them like the container does
+                throw new ObserverException(e);
+            }
+        }
+    }
+
+    private record DirectEventContext<T>(T getEvent, EventMetadata getMetadata) implements EventContext<T> {}
+
+    private record DirectEventMetadata(Type getType, Set<Annotation> getQualifiers) implements EventMetadata {
+        @Override
+        public InjectionPoint getInjectionPoint() {
+            // the payload was not fired through an Event
+            return null;
+        }
     }
 }
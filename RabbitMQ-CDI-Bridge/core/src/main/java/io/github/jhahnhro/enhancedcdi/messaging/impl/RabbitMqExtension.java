@@ -6,8 +6,10 @@ import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.rabbitmq.client.AMQP;
 import io.github.jhahnhro.enhancedcdi.messaging.Consolidated;
@@ -16,18 +18,26 @@ import io.github.jhahnhro.enhancedcdi.messaging.FromQueue;
 import io.github.jhahnhro.enhancedcdi.messaging.Topology;
 import io.github.jhahnhro.enhancedcdi.messaging.rpc.RpcEndpoint;
 import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.enterprise.inject.spi.AfterBeanDiscovery;
 import jakarta.enterprise.inject.spi.AfterDeploymentValidation;
 import jakarta.enterprise.inject.spi.AnnotatedMethod;
 import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.DefinitionException;
+import jakarta.enterprise.inject.spi.EventMetadata;
 import jakarta.enterprise.inject.spi.Extension;
+import jakarta.enterprise.inject.spi.ObserverMethod;
 import jakarta.enterprise.inject.spi.ProcessObserverMethod;
 import jakarta.enterprise.util.AnnotationLiteral;
 
 public class RabbitMqExtension implements Extension {
     private final Map<String, Set<AnnotatedMethod<?>>> necessaryQueues = new HashMap<>();
     private final Map<String, Set<AnnotatedMethod<?>>> necessaryExchanges = new HashMap<>();
+    private final Map<ObservedRoute, Set<KnownObserver>> observersByRoute = new HashMap<>();
+    /**
+     * Immutable copy of {@link #observersByRoute} that is kept after deployment validation.
+     */
+    private volatile Map<ObservedRoute, Set<KnownObserver>> routingTable = Map.of();
 
     //region ProcessObserverMethod
     <T, X> void validateObserverMethods(@Observes ProcessObserverMethod<T, X> pom) {
@@ -43,17 +53,39 @@ public class RabbitMqExtension implements Extension {
 
         final AnnotatedMethod<X> method = pom.getAnnotatedMethod();
 
-        observedQualifiers.stream()
+        final String queue = observedQualifiers.stream()
                 .filter(ann -> ann.annotationType() == FromQueue.class)
                 .map(FromQueue.class::cast)
                 .map(FromQueue::value)
-                .forEach(queue -> necessaryQueues.computeIfAbsent(queue, __ -> new HashSet<>()).add(method));
-        observedQualifiers.stream()
+                .findAny()
+                .orElse(null);
+        final String exchange = observedQualifiers.stream()
                 .filter(ann -> ann.annotationType() == FromExchange.class)
                 .map(FromExchange.class::cast)
                 .map(FromExchange::value)
                 .findAny()
-                .ifPresent(exchange -> necessaryExchanges.computeIfAbsent(exchange, __ -> new HashSet<>()).add(method));
+                .orElse(null);
+
+        if (queue != null) {
+            necessaryQueues.computeIfAbsent(queue, __ -> new HashSet<>()).add(method);
+        }
+        if (exchange != null) {
+            necessaryExchanges.computeIfAbsent(exchange, __ -> new HashSet<>()).add(method);
+        }
+        if (queue != null || exchange != null) {
+            observersByRoute.computeIfAbsent(new ObservedRoute(queue, exchange), __ -> new HashSet<>())
+                    .add(new KnownObserver(pom.getObserverMethod(), isDirectlyNotifiable(pom)));
+        }
+    }
+
+    private static <T, X> boolean isDirectlyNotifiable(ProcessObserverMethod<T, X> pom) {
+        final ObserverMethod<T> observerMethod = pom.getObserverMethod();
+        // the EventMetadata of a direct notification would lack the injection point
+        return !observerMethod.isAsync() && observerMethod.getTransactionPhase() == TransactionPhase.IN_PROGRESS
+               && pom.getAnnotatedMethod()
+                       .getParameters()
+                       .stream()
+                       .noneMatch(parameter -> parameter.getBaseType() == EventMetadata.class);
     }
 
     private <T, X> void validateRpcMethod(ProcessObserverMethod<T, X> pom) {
@@ -84,6 +116,11 @@ public class RabbitMqExtension implements Extension {
         // no need to keep these around
         necessaryQueues.clear();
         necessaryExchanges.clear();
+
+        routingTable = observersByRoute.entrySet()
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Set.copyOf(entry.getValue())));
+        observersByRoute.clear();
     }
 
     private void validateTopology(AfterDeploymentValidation adv, Topology topology) {
@@ -116,4 +153,46 @@ public class RabbitMqExtension implements Extension {
         });
     }
     //endregion
+
+    //region routing table
+    /**
+     * Returns the observer methods that were discovered to observe messages from the given queue and exchange, i.e.
+     * all observers that are qualified with {@code @FromQueue(queue)}, {@code @FromExchange(exchange)} or both. The
+     * result does not contain observers without either of these qualifiers, even though they might observe the same
+     * messages, so callers must confirm the result with the container.
+     *
+     * @param queue    the queue the message was received from
+     * @param exchange the exchange the message was published to
+     * @return the known observers of messages from the given queue and exchange
+     */
+    Set<KnownObserver> knownObserversOf(String queue, String exchange) {
+        final Map<ObservedRoute, Set<KnownObserver>> table = routingTable;
+        return Stream.of(new ObservedRoute(queue, exchange), new ObservedRoute(queue, null),
+                         new ObservedRoute(null, exchange))
+                .map(route -> table.getOrDefault(route, Set.of()))
+                .flatMap(Set::stream)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * The queue and exchange that an observer method is qualified with, {@code null} if it does not restrict the
+     * queue or exchange respectively.
+     */
+    private record ObservedRoute(String queue, String exchange) {}
+
+    /**
+     * An observer method of incoming messages.
+     *
+     * @param observerMethod     the observer method
+     * @param directlyNotifiable whether the observer can be notified by calling
+     *                           {@link ObserverMethod#notify(jakarta.enterprise.inject.spi.EventContext)} instead of
+     *                           firing an event, i.e. it is synchronous, not transactional and does not inject the
+     *                           {@link EventMetadata}
+     */
+    record KnownObserver(ObserverMethod<?> observerMethod, boolean directlyNotifiable) {
+        KnownObserver {
+            Objects.requireNonNull(observerMethod);
+        }
+    }
+    //endregion
 }
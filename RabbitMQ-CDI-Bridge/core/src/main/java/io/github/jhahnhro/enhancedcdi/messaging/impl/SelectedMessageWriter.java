@@ -45,7 +45,8 @@ class SelectedMessageWriter<T> implements MessageWriter<T> {
         typeT = ((ParameterizedType) injectionPoint.getType()).getActualTypeArguments()[0];
         Type messageWriterType = new ParameterizedTypeImpl(SelectableMessageWriter.class, null, typeT);
 
-        this.writers = enhancedInstance.<SelectableMessageWriter<T>>select(messageWriterType, Any.Literal.INSTANCE)
+        this.writers = enhancedInstance.<SelectableMessageWriter<T>>selectUnchecked(messageWriterType,
+                                                                                    Any.Literal.INSTANCE)
                 .stream()
                 .sorted(HIGHEST_FIRST)
                 .toList();
@@ -85,7 +85,8 @@ class Serialization {
 
     private <T> MessageWriter<T> getSelectedWriter(Outgoing<T> outgoingMessage) {
         var messageWriterType = new ParameterizedTypeImpl(MessageWriter.class, null, outgoingMessage.type());
-        return this.enhancedInstance.<MessageWriter<T>>select(messageWriterType, Selected.Literal.INSTANCE).get();
+        return this.enhancedInstance.<MessageWriter<T>>selectUnchecked(messageWriterType, Selected.Literal.INSTANCE)
+                .get();
     }
 
     //endregion
@@ -6,8 +6,10 @@ import static io.github.jhahnhro.enhancedcdi.messaging.messages.Message.Delivery
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.System.Logger.Level;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import com.rabbitmq.client.AMQP;
@@ -16,6 +18,7 @@ import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ReturnListener;
 import com.rabbitmq.client.ShutdownListener;
+import io.github.jhahnhro.enhancedcdi.messaging.Configuration;
 import io.github.jhahnhro.enhancedcdi.messaging.impl.WithConfirms;
 import io.github.jhahnhro.enhancedcdi.messaging.messages.Message.DeliveryMode;
 import io.github.jhahnhro.enhancedcdi.messaging.messages.MessageBuilder;
@@ -25,6 +28,7 @@ import io.github.jhahnhro.enhancedcdi.pooled.BlockingPool;
 import io.github.jhahnhro.enhancedcdi.pooled.LazyBlockingPool;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.Any;
 import jakarta.enterprise.inject.Default;
 import jakarta.enterprise.inject.Disposes;
@@ -39,6 +43,10 @@ class ChannelProducer {
     private final ReturnListener returnCallback;
     private final ChannelLifeCycle defaultChannelLifeCycle;
     private final ChannelLifeCycle confirmChannelLifeCycle;
+    /**
+     * All pools that have been produced and not yet disposed.
+     */
+    private final Set<ChannelPool> channelPools = ConcurrentHashMap.newKeySet();
 
     @Inject
     ChannelProducer(Event<ReturnedMessage> event, BookkeepingConnection connection) {
@@ -46,8 +54,7 @@ class ChannelProducer {
 
         this.defaultChannelLifeCycle = new ChannelLifeCycle(connection) {
             @Override
-            public Channel createNew() throws InterruptedException {
-                final Channel channel = super.createNew();
+            protected Channel configure(Channel channel) {
                 channel.addReturnListener(returnCallback);
                 return channel;
             }
@@ -55,8 +62,7 @@ class ChannelProducer {
 
         this.confirmChannelLifeCycle = new ChannelLifeCycle(connection) {
             @Override
-            public Channel createNew() throws InterruptedException {
-                final Channel channel = super.createNew();
+            protected Channel configure(Channel channel) {
                 try {
                     channel.confirmSelect();
                 } catch (IOException e) {
@@ -70,9 +76,9 @@ class ChannelProducer {
     @Produces
     @Default
     @ApplicationScoped
-    BlockingPool<Channel> channelPool() throws InterruptedException {
+    BlockingPool<Channel> channelPool(Configuration configuration) throws InterruptedException {
         LOG.log(Level.DEBUG, "Creating shared pool of channels");
-        return new ChannelPool(defaultChannelLifeCycle);
+        return register(new ChannelPool(defaultChannelLifeCycle, configuration.publisherChannelAffinity()));
     }
 
     @Produces
@@ -85,9 +91,9 @@ class ChannelProducer {
     @Produces
     @WithConfirms
     @ApplicationScoped
-    BlockingPool<Channel> channelPoolWithConfirms() throws InterruptedException {
+    BlockingPool<Channel> channelPoolWithConfirms(Configuration configuration) throws InterruptedException {
         LOG.log(Level.DEBUG, "Creating shared pool of channels in confirm-mode");
-        return new ChannelPool(confirmChannelLifeCycle);
+        return register(new ChannelPool(confirmChannelLifeCycle, configuration.publisherChannelAffinity()));
     }
 
     @Produces
@@ -99,9 +105,19 @@ class ChannelProducer {
 
     void dispose(@Disposes @Any BlockingPool<Channel> channelPool) {
         LOG.log(Level.DEBUG, "Shutting down shared pool of channels");
+        channelPools.remove(channelPool);
         channelPool.close();
     }
 
+    private ChannelPool register(ChannelPool channelPool) {
+        channelPools.add(channelPool);
+        return channelPool;
+    }
+
+    void onConnectionEstablished(@Observes ConnectionEstablished connectionEstablished) {
+        channelPools.forEach(channelPool -> channelPool.onConnectionEstablished(connectionEstablished));
+    }
+
     void dispose(@Disposes @Any ChannelSupplier channelSupplier) {
         channelSupplier.close();
     }
@@ -109,19 +125,63 @@ class ChannelProducer {
     private static final class ChannelPool implements BlockingPool<Channel> {
         private final Connection connection;
         private final LazyBlockingPool<Channel> delegate;
-
-        ChannelPool(ChannelLifeCycle channelLifeCycle) throws InterruptedException {
+        /**
+         * {@code null} unless {@link Configuration.ChannelAffinity#THREAD} is configured.
+         */
+        private final ThreadAffineChannels affineChannels;
+        /**
+         * Set when the connection bean has been re-created or the connection has been recovered, because the channel
+         * max may have changed.
+         */
+        private volatile boolean capacityOutdated = false;
+
+        ChannelPool(ChannelLifeCycle channelLifeCycle, Configuration.ChannelAffinity affinity)
+                throws InterruptedException {
             this.connection = channelLifeCycle.connection;
-            this.delegate = new LazyBlockingPool<>(0, connection.getChannelMax(), channelLifeCycle);
+            final int channelMax = connection.getChannelMax();
+            this.affineChannels = affinity == Configuration.ChannelAffinity.THREAD ?
+                    new ThreadAffineChannels(channelLifeCycle, ThreadAffineChannels.maxChannels(channelMax)) : null;
+            this.delegate = new LazyBlockingPool<>(0, sharedCapacity(channelMax), channelLifeCycle);
             this.connection.addShutdownListener(sse -> delegate.clear());
         }
 
+        /**
+         * @return the part of the channel max that is not reserved for thread-affine channels.
+         */
+        private int sharedCapacity(int channelMax) {
+            return affineChannels == null ? channelMax : channelMax - ThreadAffineChannels.maxChannels(channelMax);
+        }
+
+        /**
+         * Called synchronously while the connection bean is still being created, so this must neither block nor call
+         * the connection's client proxy. The actual resize is deferred to the next {@link #apply(ThrowingFunction)}.
+         */
+        void onConnectionEstablished(ConnectionEstablished connectionEstablished) {
+            if (!connectionEstablished.recovered()) {
+                // a recovered connection keeps its shutdown listeners, a re-created one does not have ours yet
+                connectionEstablished.connection().addShutdownListener(sse -> delegate.clear());
+            }
+            capacityOutdated = true;
+        }
+
         @Override
         public <V, EX extends Exception> V apply(ThrowingFunction<Channel, V, EX> action)
                 throws InterruptedException, EX {
-            // in case the connection bean has been destroyed (not closed) and re-created since the last time, we
-            // re-size the pool to the new capacity. This is a no-op if the capacity has not changed.
-            delegate.resize(connection.getChannelMax());
+            if (capacityOutdated) {
+                // reset the flag before reading the channel max, so that a concurrent change is not lost
+                capacityOutdated = false;
+                final int channelMax = connection.getChannelMax();
+                if (affineChannels != null) {
+                    affineChannels.setMaxChannels(ThreadAffineChannels.maxChannels(channelMax));
+                }
+                delegate.resize(sharedCapacity(channelMax));
+            }
+            if (affineChannels != null) {
+                final ThreadAffineChannels.AffineChannel affineChannel = affineChannels.acquire();
+                if (affineChannel != null) {
+                    return affineChannels.apply(affineChannel, action);
+                }
+            }
             return delegate.apply(action);
         }
 
@@ -132,10 +192,228 @@ class ChannelProducer {
 
         @Override
         public void close() {
+            if (affineChannels != null) {
+                affineChannels.close();
+            }
             delegate.close();
         }
     }
 
+    /**
+     * Channels that are bound to the platform thread which created them and are used by that thread only, without
+     * going through the shared pool. At most {@link #maxChannels(int) half} of the connection's channel max is used
+     * for them, the shared pool gets the rest.
+     * <p>
+     * There is no way to be notified when a thread terminates, so the channels of terminated threads are destroyed
+     * whenever another thread needs a new channel, and when closing. Because their number is bounded, they cannot
+     * pile up in the meantime.
+     *
+     * @see Configuration.ChannelAffinity#THREAD
+     */
+    private static final class ThreadAffineChannels implements AutoCloseable {
+        private final ChannelLifeCycle channelLifeCycle;
+        private final Map<Thread, AffineChannel> channels = new ConcurrentHashMap<>();
+        /**
+         * Number of affine channels that are open or being opened.
+         */
+        private final AtomicInteger channelCount = new AtomicInteger();
+        private volatile int maxChannels;
+        private volatile boolean closed = false;
+
+        private ThreadAffineChannels(ChannelLifeCycle channelLifeCycle, int maxChannels) {
+            this.channelLifeCycle = channelLifeCycle;
+            this.maxChannels = maxChannels;
+        }
+
+        /**
+         * @param channelMax the connection's channel max
+         * @return how many of the connection's channels may be bound to threads.
+         */
+        static int maxChannels(int channelMax) {
+            return channelMax / 2;
+        }
+
+        /**
+         * Changes the maximum number of affine channels. If there are more channels than that, no new ones are created
+         * until enough threads have terminated.
+         */
+        void setMaxChannels(int maxChannels) {
+            this.maxChannels = maxChannels;
+        }
+
+        /**
+         * @return the current thread's channel, newly created if necessary and marked as in use, or {@code null} if
+         * the shared pool must be used instead, because the current thread is virtual, is already using its channel or
+         * no more affine channels may be opened.
+         * @throws IllegalStateException if already closed.
+         */
+        AffineChannel acquire() {
+            if (closed) {
+                throw new IllegalStateException("BlockingPool closed.");
+            }
+            final Thread thread = Thread.currentThread();
+            if (thread.isVirtual()) {
+                return null;
+            }
+
+            final AffineChannel existing = channels.get(thread);
+            if (existing != null) {
+                if (existing.channel.isOpen()) {
+                    return existing.tryClaim() ? existing : null;
+                }
+                channels.remove(thread);
+                destroy(existing);
+            }
+
+            destroyChannelsOfTerminatedThreads();
+            return tryCreate(thread);
+        }
+
+        private AffineChannel tryCreate(Thread thread) {
+            if (!tryReserve()) {
+                return null;
+            }
+            final Channel channel;
+            try {
+                channel = channelLifeCycle.tryCreateNew();
+            } catch (RuntimeException e) {
+                channelCount.decrementAndGet();
+                throw e;
+            }
+            if (channel == null) {
+                channelCount.decrementAndGet();
+                return null;
+            }
+            final AffineChannel affineChannel = new AffineChannel(channel);
+            channels.put(thread, affineChannel);
+            if (closed) {
+                // close() may have missed the new channel
+                channels.remove(thread);
+                affineChannel.requestClose();
+                destroy(affineChannel);
+                throw new IllegalStateException("BlockingPool closed.");
+            }
+            return affineChannel;
+        }
+
+        private boolean tryReserve() {
+            int count;
+            do {
+                count = channelCount.get();
+                if (count >= maxChannels) {
+                    return false;
+                }
+            } while (!channelCount.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /**
+         * Runs the action on the channel that the current thread has {@link #acquire() acquired}.
+         */
+        <V, EX extends Exception> V apply(AffineChannel affineChannel,
+                                          BlockingPool.ThrowingFunction<Channel, V, EX> action) throws EX {
+            try {
+                return action.apply(affineChannel.channel);
+            } finally {
+                if (!affineChannel.release()) {
+                    // closed while in use
+                    destroy(affineChannel);
+                }
+            }
+        }
+
+        private void destroyChannelsOfTerminatedThreads() {
+            channels.entrySet().removeIf(entry -> {
+                if (entry.getKey().isAlive()) {
+                    return false;
+                }
+                // a terminated thread cannot be using its channel anymore
+                if (entry.getValue().requestClose()) {
+                    destroy(entry.getValue());
+                }
+                return true;
+            });
+        }
+
+        private void destroy(AffineChannel affineChannel) {
+            channelLifeCycle.destroy(affineChannel.channel);
+            channelCount.decrementAndGet();
+        }
+
+        /**
+         * Destroys all channels that are not in use. Channels that are in use are destroyed by their threads as soon as
+         * they are done with them.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            channels.values().forEach(affineChannel -> {
+                if (affineChannel.requestClose()) {
+                    destroy(affineChannel);
+                }
+            });
+            channels.clear();
+        }
+
+        private static final class AffineChannel {
+            private static final int IDLE = 0;
+            private static final int IN_USE = 1;
+            private static final int CLOSE_REQUESTED = 2;
+            private static final int CLOSED = 3;
+
+            private final Channel channel;
+            private final AtomicInteger state = new AtomicInteger(IN_USE);
+
+            /**
+             * Creates a new instance that is in use by the current thread.
+             */
+            private AffineChannel(Channel channel) {this.channel = channel;}
+
+            /**
+             * Marks this channel as being used by the owning thread.
+             *
+             * @return {@code false} if the channel is already in use or has been closed.
+             */
+            boolean tryClaim() {
+                return state.compareAndSet(IDLE, IN_USE);
+            }
+
+            /**
+             * Called by the owning thread when it is done using this channel.
+             *
+             * @return {@code true} if the channel can be used again, {@code false} if it has been closed while it was
+             * in use and must now be destroyed by the caller.
+             */
+            boolean release() {
+                if (state.compareAndSet(IN_USE, IDLE)) {
+                    return true;
+                }
+                state.set(CLOSED);
+                return false;
+            }
+
+            /**
+             * Closes this channel, or asks the owning thread to destroy it when it is done using it.
+             *
+             * @return {@code true} if the channel was not in use and must now be destroyed by the caller.
+             */
+            boolean requestClose() {
+                while (true) {
+                    final int current = state.get();
+                    if (current == IDLE && state.compareAndSet(IDLE, CLOSED)) {
+                        return true;
+                    }
+                    if (current == IN_USE && state.compareAndSet(IN_USE, CLOSE_REQUESTED)) {
+                        return false;
+                    }
+                    if (current == CLOSE_REQUESTED || current == CLOSED) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
     private static class ChannelLifeCycle implements LazyBlockingPool.Lifecycle<Channel> {
         private final BookkeepingConnection connection;
 
@@ -174,6 +452,38 @@ class ChannelProducer {
                 LOG.log(Level.DEBUG, "Channel could not be created.", e);
                 throw e;
             }
+            return configure(channel);
+        }
+
+        /**
+         * Creates a new channel without blocking.
+         *
+         * @return the new channel or {@code null} if no more channels can be opened on the connection.
+         */
+        public Channel tryCreateNew() {
+            final Channel channel;
+            try {
+                LOG.log(Level.DEBUG, "Creating channel...");
+                channel = connection.createChannel();
+            } catch (IOException e) {
+                LOG.log(Level.DEBUG, "Channel could not be created.", e);
+                throw new UncheckedIOException(e);
+            }
+            if (channel == null) {
+                LOG.log(Level.DEBUG, "Channel could not be created, because no more channels are available.");
+                return null;
+            }
+            LOG.log(Level.DEBUG, "Channel " + channel + " created.");
+            return configure(channel);
+        }
+
+        /**
+         * Prepares a newly created channel for use.
+         *
+         * @param channel a newly created channel
+         * @return the prepared channel
+         */
+        protected Channel configure(Channel channel) {
             return channel;
         }
 
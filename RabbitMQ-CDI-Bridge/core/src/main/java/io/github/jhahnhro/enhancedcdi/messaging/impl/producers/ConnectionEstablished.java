@@ -0,0 +1,13 @@
+package io.github.jhahnhro.enhancedcdi.messaging.impl.producers;
+
+/**
+ * Internal event fired whenever a connection to the broker has been established, i.e. when the connection bean has been
+ * (re-)created or when the connection has been automatically recovered after a failure. In both cases properties that
+ * were negotiated with the broker, like the {@link BookkeepingConnection#getChannelMax() channel max}, may have
+ * changed.
+ *
+ * @param connection the connection. Not a client proxy, but the contextual instance itself.
+ * @param recovered  {@code true} if an existing connection has been recovered, {@code false} if it is a new one.
+ */
+record ConnectionEstablished(BookkeepingConnection connection, boolean recovered) {
+}
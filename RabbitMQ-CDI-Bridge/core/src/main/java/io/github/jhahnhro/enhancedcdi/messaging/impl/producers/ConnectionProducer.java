@@ -13,12 +13,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import com.rabbitmq.client.AlreadyClosedException;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
 import com.rabbitmq.client.ShutdownListener;
 import com.rabbitmq.client.ShutdownNotifier;
 import com.rabbitmq.client.ShutdownSignalException;
 import io.github.jhahnhro.enhancedcdi.messaging.Configuration;
 import io.github.jhahnhro.enhancedcdi.messaging.Retry;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Singleton;
@@ -30,8 +33,27 @@ class ConnectionProducer {
 
     @Produces
     @ApplicationScoped
-    BookkeepingConnection produceConnection(Configuration configuration) throws InterruptedException, TimeoutException {
-        return new ChannelTrackingConnection(newConnection(configuration));
+    BookkeepingConnection produceConnection(Configuration configuration, Event<ConnectionEstablished> established)
+            throws InterruptedException, TimeoutException {
+        final Connection connection = newConnection(configuration);
+        final BookkeepingConnection trackingConnection = new ChannelTrackingConnection(connection);
+
+        if (connection instanceof Recoverable recoverable) {
+            recoverable.addRecoveryListener(new RecoveryListener() {
+                @Override
+                public void handleRecovery(Recoverable recovered) {
+                    established.fire(new ConnectionEstablished(trackingConnection, true));
+                }
+
+                @Override
+                public void handleRecoveryStarted(Recoverable recovering) {
+                    // nothing to do until the recovery has finished
+                }
+            });
+        }
+        established.fire(new ConnectionEstablished(trackingConnection, false));
+
+        return trackingConnection;
     }
 
     void disposeConnection(@Disposes Connection connection) {
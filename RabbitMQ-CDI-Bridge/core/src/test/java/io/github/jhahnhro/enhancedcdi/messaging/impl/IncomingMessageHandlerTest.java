@@ -0,0 +1,484 @@
+package io.github.jhahnhro.enhancedcdi.messaging.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Envelope;
+import io.github.jhahnhro.enhancedcdi.messaging.Consolidated;
+import io.github.jhahnhro.enhancedcdi.messaging.FromExchange;
+import io.github.jhahnhro.enhancedcdi.messaging.FromQueue;
+import io.github.jhahnhro.enhancedcdi.messaging.Publisher;
+import io.github.jhahnhro.enhancedcdi.messaging.Redelivered;
+import io.github.jhahnhro.enhancedcdi.messaging.Topology;
+import io.github.jhahnhro.enhancedcdi.messaging.WithRoutingKey;
+import io.github.jhahnhro.enhancedcdi.messaging.impl.producers.MessageMetaDataProducer;
+import io.github.jhahnhro.enhancedcdi.messaging.messages.Acknowledgement;
+import io.github.jhahnhro.enhancedcdi.messaging.messages.Incoming;
+import io.github.jhahnhro.enhancedcdi.messaging.messages.Outgoing;
+import io.github.jhahnhro.enhancedcdi.messaging.rpc.RpcEndpoint;
+import io.github.jhahnhro.enhancedcdi.messaging.serialization.DeserializationException;
+import io.github.jhahnhro.enhancedcdi.messaging.serialization.SerializationException;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.EventContext;
+import jakarta.enterprise.inject.spi.EventMetadata;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.enterprise.util.TypeLiteral;
+import jakarta.inject.Inject;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IncomingMessageHandlerTest {
+
+    private static final String QUEUE = "queue";
+    private static final String EXCHANGE = "exchange";
+    private static final String ROUTING_KEY = "routing.key";
+    private static final String RPC_QUEUE = "rpc";
+    private static final String CONDITIONAL_QUEUE = "conditional";
+    private static final AMQP.BasicProperties PROPERTIES = new AMQP.BasicProperties.Builder().deliveryMode(1).build();
+    private static final AMQP.BasicProperties REQUEST_PROPERTIES = PROPERTIES.builder()
+            .replyTo("reply.queue")
+            .correlationId("correlation.id")
+            .build();
+    private static final Type RESPONSE_BUILDER_TYPE =
+            new TypeLiteral<Outgoing.Response.Builder<byte[], Object>>() {}.getType();
+
+    @Mock
+    Event<Object> processedEvent;
+    @Mock
+    MessageMetaDataProducer metaData;
+    @Mock
+    Serialization serialization;
+    @Mock
+    Publisher publisher;
+    @Mock
+    ExceptionMapping exceptionMapping;
+    @Mock
+    BeanManager beanManager;
+    @Mock
+    Instance<RabbitMqExtension> extensionInstance;
+    @Mock
+    Acknowledgement ack;
+    @Mock
+    RabbitMqExtension extension;
+    @Mock
+    ObserverMethod<Object> observer;
+    @Mock
+    ObserverMethod<Object> otherObserver;
+    /**
+     * The qualifiers of every {@link Event#select(Annotation...)} call on {@link #processedEvent}.
+     */
+    private final List<List<Annotation>> selectedQualifiers = new ArrayList<>();
+    /**
+     * The events returned by {@link Event#select(Annotation...)}, one per call.
+     */
+    private final List<Event<Object>> selectedEvents = new ArrayList<>();
+    private IncomingMessageHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        this.handler = new IncomingMessageHandler();
+        this.handler.processedEvent = this.processedEvent;
+        this.handler.metaData = this.metaData;
+        this.handler.serialization = this.serialization;
+        this.handler.publisher = this.publisher;
+        this.handler.exceptionMapping = this.exceptionMapping;
+        this.handler.beanManager = this.beanManager;
+        this.handler.extension = this.extensionInstance;
+
+        lenient().when(processedEvent.select(any(Annotation[].class))).then(invocation -> {
+            selectedQualifiers.add(Arrays.stream(invocation.getArguments()).map(Annotation.class::cast).toList());
+            @SuppressWarnings("unchecked") final Event<Object> selected = mock(Event.class);
+            selectedEvents.add(selected);
+            return selected;
+        });
+        lenient().when(ack.getState()).thenReturn(Acknowledgement.State.ACKNOWLEDGED);
+    }
+
+    private static Envelope envelope(String routingKey, boolean redelivered) {
+        return new Envelope(1L, redelivered, EXCHANGE, routingKey);
+    }
+
+    private void deliver(Envelope envelope, Object payload) throws DeserializationException {
+        deliver(new Incoming.Cast<>(QUEUE, envelope, PROPERTIES, new byte[0]), payload);
+    }
+
+    private void deliver(Incoming<byte[]> rawMessage, Object payload) throws DeserializationException {
+        doReturn(rawMessage.withContent(payload)).when(serialization).deserialize(rawMessage);
+
+        handler.handleDelivery(new InternalDelivery(rawMessage, ack));
+    }
+
+    private static List<Annotation> standardQualifiers(String routingKey, boolean redelivered) {
+        return List.of(new FromQueue.Literal(QUEUE), new FromExchange.Literal(EXCHANGE),
+                       new WithRoutingKey.Literal(routingKey), Redelivered.Literal.of(redelivered));
+    }
+
+    @Nested
+    class TestRouteCache {
+
+        @BeforeEach
+        void setUp() {
+            when(extensionInstance.isResolvable()).thenReturn(false);
+        }
+
+        @Test
+        void givenMessagesOnSameRoute_whenHandleDelivery_thenSelectEventOnceAndReuseIt()
+                throws DeserializationException {
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope(ROUTING_KEY, false), "second");
+
+            assertThat(selectedQualifiers).containsExactly(standardQualifiers(ROUTING_KEY, false));
+            final Event<Object> event = selectedEvents.get(0);
+            verify(event).fire("first");
+            verify(event).fire("second");
+            verify(processedEvent, never()).fire(any());
+        }
+
+        @Test
+        void givenMessagesOnDifferentRoutes_whenHandleDelivery_thenSelectEventPerRoute()
+                throws DeserializationException {
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope("other.key", false), "second");
+            deliver(envelope(ROUTING_KEY, true), "third");
+            deliver(envelope(ROUTING_KEY, false), "fourth");
+
+            assertThat(selectedQualifiers).containsExactly(standardQualifiers(ROUTING_KEY, false),
+                                                           standardQualifiers("other.key", false),
+                                                           standardQualifiers(ROUTING_KEY, true));
+            verify(selectedEvents.get(0)).fire("first");
+            verify(selectedEvents.get(1)).fire("second");
+            verify(selectedEvents.get(2)).fire("third");
+            verify(selectedEvents.get(0)).fire("fourth");
+        }
+
+        @Test
+        void givenMoreRoutesThanCached_whenHandleDelivery_thenEvictLeastRecentlyUsedRoutes()
+                throws DeserializationException {
+            deliver(envelope(ROUTING_KEY, false), "busy");
+            deliver(envelope("idle.key", false), "idle");
+            // more one-off routes than the 256 cached ones, while the busy route keeps receiving messages
+            for (int i = 0; i < 300; i++) {
+                deliver(envelope("one-off." + i, false), i);
+                deliver(envelope(ROUTING_KEY, false), "busy");
+            }
+
+            deliver(envelope("idle.key", false), "idle again");
+
+            assertThat(selectedQualifiers).filteredOn(standardQualifiers(ROUTING_KEY, false)::equals).hasSize(1);
+            assertThat(selectedQualifiers).filteredOn(standardQualifiers("idle.key", false)::equals).hasSize(2);
+            verify(selectedEvents.get(0), times(301)).fire("busy");
+        }
+    }
+
+    @Nested
+    class TestDirectNotification {
+
+        @BeforeEach
+        void setUp() {
+            when(extensionInstance.isResolvable()).thenReturn(true);
+            when(extensionInstance.get()).thenReturn(extension);
+        }
+
+        private void knownObservers(RabbitMqExtension.KnownObserver... knownObservers) {
+            when(extension.knownObserversOf(QUEUE, EXCHANGE)).thenReturn(Set.of(knownObservers));
+        }
+
+        private void resolvedObservers(ObserverMethod<?>... observers) {
+            doReturn(Set.of(observers)).when(beanManager).resolveObserverMethods(any(), any(Annotation[].class));
+        }
+
+        @Test
+        void givenFirstMessageOfRoute_whenHandleDelivery_thenFireEvent() throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+
+            deliver(envelope(ROUTING_KEY, false), "payload");
+
+            verify(selectedEvents.get(0)).fire("payload");
+            verifyNoInteractions(beanManager, observer);
+        }
+
+        @Test
+        void givenMoreRoutesThanCached_whenHandleDelivery_thenFireEventsWithoutResolvingObservers()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+
+            // more one-off routes than the 256 cached ones
+            for (int i = 0; i < 300; i++) {
+                deliver(envelope("one-off." + i, false), i);
+            }
+
+            for (int i = 0; i < 300; i++) {
+                verify(selectedEvents.get(i)).fire(i);
+            }
+            verify(extensionInstance).get();
+            verify(extension).knownObserversOf(QUEUE, EXCHANGE);
+            verifyNoInteractions(beanManager, observer);
+        }
+
+        @Test
+        void givenKnownObserverIsOnlyObserver_whenHandleDelivery_thenNotifyItDirectly()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+            resolvedObservers(observer);
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope(ROUTING_KEY, false), "payload");
+
+            @SuppressWarnings("unchecked") final ArgumentCaptor<EventContext<Object>> eventContext =
+                    ArgumentCaptor.forClass(EventContext.class);
+            verify(observer).notify(eventContext.capture());
+            assertThat(eventContext.getValue().getEvent()).isEqualTo("payload");
+            final EventMetadata metadata = eventContext.getValue().getMetadata();
+            assertThat(metadata.getType()).isEqualTo(String.class);
+            assertThat(metadata.getQualifiers()).containsExactlyInAnyOrderElementsOf(
+                    Stream.concat(standardQualifiers(ROUTING_KEY, false).stream(),
+                                  Stream.of(io.github.jhahnhro.enhancedcdi.messaging.Incoming.Literal.INSTANCE,
+                                            Any.Literal.INSTANCE)).toList());
+            assertThat(metadata.getInjectionPoint()).isNull();
+            verify(selectedEvents.get(0)).fire("first");
+            verify(selectedEvents.get(0), never()).fire("payload");
+        }
+
+        @Test
+        void givenObserverWithoutRouteQualifiersAlsoResolved_whenHandleDelivery_thenFireEvent()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+            resolvedObservers(observer, otherObserver);
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope(ROUTING_KEY, false), "payload");
+
+            verify(selectedEvents.get(0)).fire("payload");
+            verify(observer, never()).notify(any(EventContext.class));
+        }
+
+        @Test
+        void givenKnownObserverNotDirectlyNotifiable_whenHandleDelivery_thenFireEvent()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, false));
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope(ROUTING_KEY, false), "payload");
+
+            verify(selectedEvents.get(0)).fire("payload");
+            verifyNoInteractions(beanManager, observer);
+        }
+
+        @Test
+        void givenSeveralKnownObservers_whenHandleDelivery_thenFireEvent() throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true),
+                           new RabbitMqExtension.KnownObserver(otherObserver, true));
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope(ROUTING_KEY, false), "payload");
+
+            verify(selectedEvents.get(0)).fire("payload");
+            verifyNoInteractions(beanManager, observer, otherObserver);
+        }
+
+        @Test
+        void givenMessagesWithSamePayloadClass_whenHandleDelivery_thenResolveObserversOncePerClass()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+            resolvedObservers(observer);
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(envelope(ROUTING_KEY, false), "second");
+            deliver(envelope(ROUTING_KEY, false), "third");
+            deliver(envelope(ROUTING_KEY, false), 42);
+
+            verify(beanManager).resolveObserverMethods(eq("second"), any(Annotation[].class));
+            verify(beanManager).resolveObserverMethods(eq(42), any(Annotation[].class));
+            verifyNoMoreInteractions(beanManager);
+            verify(observer, times(3)).notify(any(EventContext.class));
+        }
+
+        @Test
+        void givenObserverThrowsCheckedException_whenHandleRequest_thenMapThatException()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+            resolvedObservers(observer);
+            final IOException failure = new IOException("observer failed");
+            // ObserverMethod#notify does not declare checked exceptions, but observer methods may throw them
+            doAnswer(invocation -> {
+                throw failure;
+            }).when(observer).notify(any(EventContext.class));
+            final Incoming.Request<byte[]> request = new Incoming.Request<>(QUEUE, envelope(ROUTING_KEY, false),
+                                                                            REQUEST_PROPERTIES, new byte[0]);
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(request, "payload");
+
+            verify(exceptionMapping).applyExceptionMapper(request, failure);
+        }
+
+        @Test
+        void givenObserverThrowsUncheckedException_whenHandleRequest_thenMapThatException()
+                throws DeserializationException {
+            knownObservers(new RabbitMqExtension.KnownObserver(observer, true));
+            resolvedObservers(observer);
+            final IllegalStateException failure = new IllegalStateException("observer failed");
+            doThrow(failure).when(observer).notify(any(EventContext.class));
+            final Incoming.Request<byte[]> request = new Incoming.Request<>(QUEUE, envelope(ROUTING_KEY, false),
+                                                                            REQUEST_PROPERTIES, new byte[0]);
+
+            deliver(envelope(ROUTING_KEY, false), "first");
+            deliver(request, "payload");
+
+            verify(exceptionMapping).applyExceptionMapper(request, failure);
+        }
+    }
+
+    /**
+     * Runs the handler against a real container to make sure that notifying an observer directly behaves like firing
+     * the event. The first message of a route is always fired, later ones are passed to the observer directly.
+     */
+    @Nested
+    @EnableWeld
+    class TestDirectNotificationInContainer {
+
+        private final Incoming.Request<byte[]> request = new Incoming.Request<>(RPC_QUEUE, envelope(ROUTING_KEY,
+                                                                                                   false),
+                                                                                REQUEST_PROPERTIES, new byte[0]);
+
+        @WeldSetup
+        WeldInitiator w = WeldInitiator.from(new Weld().disableDiscovery()
+                                                     .addExtension(new RabbitMqExtension())
+                                                     .addBeanClasses(RpcResultPublishingInterceptor.class,
+                                                                     RpcObserver.class, ConditionalObserver.class)
+                                                     .interceptors(RpcResultPublishingInterceptor.class))
+                .activate(RequestScoped.class)
+                .addBeans(MockBean.builder()
+                                  .types(Topology.class)
+                                  .qualifiers(Consolidated.Literal.INSTANCE)
+                                  .creating(new Topology(Set.of(), Set.of(queue(RPC_QUEUE), queue(CONDITIONAL_QUEUE)),
+                                                         Set.of()))
+                                  .build(), MockBean.builder()
+                                  .types(RESPONSE_BUILDER_TYPE)
+                                  .create(creationalContext -> new Outgoing.Response.Builder<>(request))
+                                  .build(), MockBean.builder()
+                                  .types(Publisher.class)
+                                  .create(creationalContext -> publisher)
+                                  .build())
+                .build();
+
+        @Inject
+        @io.github.jhahnhro.enhancedcdi.messaging.Incoming
+        Event<Object> containerEvent;
+        @Inject
+        BeanManager containerBeanManager;
+        @Inject
+        Instance<RabbitMqExtension> containerExtension;
+        @Inject
+        ConditionalObserver conditionalObserver;
+
+        private BeanManager confirmingBeanManager;
+
+        private static AMQP.Queue.Declare queue(String name) {
+            return new AMQP.Queue.Declare.Builder().queue(name).build();
+        }
+
+        @BeforeEach
+        void setUp() {
+            confirmingBeanManager = mock(BeanManager.class, AdditionalAnswers.delegatesTo(containerBeanManager));
+            handler.processedEvent = containerEvent;
+            handler.beanManager = confirmingBeanManager;
+            handler.extension = containerExtension;
+        }
+
+        @Test
+        void givenInterceptedObserver_whenHandleRequests_thenPublishSameResponses()
+                throws DeserializationException, IOException, InterruptedException, SerializationException {
+            deliver(request, "ping");
+            deliver(request, "ping");
+
+            @SuppressWarnings("unchecked") final ArgumentCaptor<Outgoing<Object>> responses =
+                    ArgumentCaptor.forClass(Outgoing.class);
+            verify(publisher, times(2)).publish(responses.capture());
+            assertThat(responses.getAllValues()).extracting(Outgoing::content).containsExactly("pong", "pong");
+            verify(confirmingBeanManager).resolveObserverMethods(eq("ping"), any(Annotation[].class));
+        }
+
+        @Test
+        void givenConditionalObserverDoesNotExist_whenHandleDelivery_thenDoNotCreateIt()
+                throws DeserializationException {
+            deliverToConditionalQueue("first");
+            deliverToConditionalQueue("second");
+
+            final Bean<?> bean = containerBeanManager.resolve(containerBeanManager.getBeans(ConditionalObserver.class));
+            assertThat(containerBeanManager.getContext(RequestScoped.class).get(bean)).isNull();
+            verify(confirmingBeanManager).resolveObserverMethods(eq("second"), any(Annotation[].class));
+        }
+
+        @Test
+        void givenConditionalObserverExists_whenHandleDelivery_thenNotifyIt() throws DeserializationException {
+            assertThat(conditionalObserver.received()).isEmpty();
+
+            deliverToConditionalQueue("first");
+            deliverToConditionalQueue("second");
+
+            assertThat(conditionalObserver.received()).containsExactly("first", "second");
+            verify(confirmingBeanManager).resolveObserverMethods(eq("second"), any(Annotation[].class));
+        }
+
+        private void deliverToConditionalQueue(String payload) throws DeserializationException {
+            deliver(new Incoming.Cast<>(CONDITIONAL_QUEUE, envelope(ROUTING_KEY, false), PROPERTIES, new byte[0]),
+                    payload);
+        }
+    }
+
+    @Dependent
+    static class RpcObserver {
+
+        @RpcEndpoint
+        String ping(@Observes @io.github.jhahnhro.enhancedcdi.messaging.Incoming @FromQueue(RPC_QUEUE) String payload) {
+            return "pong";
+        }
+    }
+
+    @RequestScoped
+    static class ConditionalObserver {
+
+        private final List<String> received = new ArrayList<>();
+
+        void observe(@Observes(notifyObserver = Reception.IF_EXISTS) @io.github.jhahnhro.enhancedcdi.messaging.Incoming
+                     @FromQueue(CONDITIONAL_QUEUE) String payload) {
+            received.add(payload);
+        }
+
+        List<String> received() {
+            return received;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.jhahnhro.enhancedcdi.messaging.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import io.github.jhahnhro.enhancedcdi.messaging.FromExchange;
+import io.github.jhahnhro.enhancedcdi.messaging.FromQueue;
+import io.github.jhahnhro.enhancedcdi.messaging.Incoming;
+import io.github.jhahnhro.enhancedcdi.messaging.Topology;
+import io.github.jhahnhro.enhancedcdi.messaging.rpc.RpcEndpoint;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.AfterDeploymentValidation;
+import jakarta.enterprise.inject.spi.AnnotatedMethod;
+import jakarta.enterprise.inject.spi.AnnotatedParameter;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.EventMetadata;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.enterprise.inject.spi.ProcessObserverMethod;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class RabbitMqExtensionTest {
+
+    private final RabbitMqExtension extension = new RabbitMqExtension();
+
+    @SuppressWarnings("unchecked")
+    private ObserverMethod<Object> observe(Set<Annotation> qualifiers, boolean async, TransactionPhase phase,
+                                           Type... parameterTypes) {
+        final ObserverMethod<Object> observerMethod = mock(ObserverMethod.class);
+        when(observerMethod.getObservedQualifiers()).thenReturn(qualifiers);
+        when(observerMethod.isAsync()).thenReturn(async);
+        when(observerMethod.getTransactionPhase()).thenReturn(phase);
+
+        final List<AnnotatedParameter<Object>> parameters = Arrays.stream(parameterTypes).map(type -> {
+            final AnnotatedParameter<Object> parameter = mock(AnnotatedParameter.class);
+            when(parameter.getBaseType()).thenReturn(type);
+            return parameter;
+        }).toList();
+        final AnnotatedMethod<Object> method = mock(AnnotatedMethod.class);
+        when(method.isAnnotationPresent(RpcEndpoint.class)).thenReturn(false);
+        when(method.getParameters()).thenReturn(parameters);
+
+        final ProcessObserverMethod<Object, Object> pom = mock(ProcessObserverMethod.class);
+        when(pom.getObserverMethod()).thenReturn(observerMethod);
+        when(pom.getAnnotatedMethod()).thenReturn(method);
+
+        extension.validateObserverMethods(pom);
+        return observerMethod;
+    }
+
+    private ObserverMethod<Object> observe(Annotation... qualifiers) {
+        return observe(Set.of(qualifiers), false, TransactionPhase.IN_PROGRESS, String.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void validate() {
+        final BeanManager beanManager = mock(BeanManager.class);
+        final Instance<Object> instance = mock(Instance.class);
+        final Instance<Topology> topology = mock(Instance.class);
+        when(beanManager.createInstance()).thenReturn(instance);
+        when(instance.select(eq(Topology.class), any(Annotation[].class))).thenReturn(topology);
+        when(topology.get()).thenReturn(new Topology(Set.of(), Set.of(), Set.of()));
+
+        extension.validate(mock(AfterDeploymentValidation.class), beanManager);
+    }
+
+    private static RabbitMqExtension.KnownObserver direct(ObserverMethod<?> observerMethod) {
+        return new RabbitMqExtension.KnownObserver(observerMethod, true);
+    }
+
+    @Nested
+    class TestKnownObservers {
+
+        @Test
+        void givenObserversOfQueueAndExchange_whenKnownObserversOf_thenReturnThoseMatchingEither() {
+            final var queueAndExchange = observe(Incoming.Literal.INSTANCE, new FromQueue.Literal("queue"),
+                                                 new FromExchange.Literal("exchange"));
+            final var queueOnly = observe(Incoming.Literal.INSTANCE, new FromQueue.Literal("queue"));
+            final var exchangeOnly = observe(Incoming.Literal.INSTANCE, new FromExchange.Literal("exchange"));
+            observe(Incoming.Literal.INSTANCE, new FromQueue.Literal("queue"), new FromExchange.Literal("other"));
+            validate();
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).containsExactlyInAnyOrder(
+                    direct(queueAndExchange), direct(queueOnly), direct(exchangeOnly));
+            assertThat(extension.knownObserversOf("queue", "unknown")).containsExactly(direct(queueOnly));
+            assertThat(extension.knownObserversOf("unknown", "exchange")).containsExactly(direct(exchangeOnly));
+            assertThat(extension.knownObserversOf("unknown", "unknown")).isEmpty();
+        }
+
+        @Test
+        void givenObserverWithoutQueueOrExchange_whenKnownObserversOf_thenDoNotReturnIt() {
+            observe(Incoming.Literal.INSTANCE);
+            final var queueOnly = observe(Incoming.Literal.INSTANCE, new FromQueue.Literal("queue"));
+            validate();
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).containsExactly(direct(queueOnly));
+        }
+
+        @Test
+        void givenNotValidatedYet_whenKnownObserversOf_thenReturnNothing() {
+            observe(Incoming.Literal.INSTANCE, new FromQueue.Literal("queue"));
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).isEmpty();
+        }
+    }
+
+    @Nested
+    class TestDirectlyNotifiable {
+
+        @Test
+        void givenSynchronousObserver_thenDirectlyNotifiable() {
+            final var observerMethod = observe(Set.of(new FromQueue.Literal("queue")), false,
+                                               TransactionPhase.IN_PROGRESS, String.class);
+            validate();
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).containsExactly(direct(observerMethod));
+        }
+
+        @Test
+        void givenAsynchronousObserver_thenNotDirectlyNotifiable() {
+            observe(Set.of(new FromQueue.Literal("queue")), true, TransactionPhase.IN_PROGRESS, String.class);
+            validate();
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).singleElement()
+                    .extracting(RabbitMqExtension.KnownObserver::directlyNotifiable)
+                    .isEqualTo(false);
+        }
+
+        @Test
+        void givenTransactionalObserver_thenNotDirectlyNotifiable() {
+            observe(Set.of(new FromQueue.Literal("queue")), false, TransactionPhase.AFTER_SUCCESS, String.class);
+            validate();
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).singleElement()
+                    .extracting(RabbitMqExtension.KnownObserver::directlyNotifiable)
+                    .isEqualTo(false);
+        }
+
+        @Test
+        void givenObserverInjectingEventMetadata_thenNotDirectlyNotifiable() {
+            observe(Set.of(new FromQueue.Literal("queue")), false, TransactionPhase.IN_PROGRESS, String.class,
+                    EventMetadata.class);
+            validate();
+
+            assertThat(extension.knownObserversOf("queue", "exchange")).singleElement()
+                    .extracting(RabbitMqExtension.KnownObserver::directlyNotifiable)
+                    .isEqualTo(false);
+        }
+    }
+}
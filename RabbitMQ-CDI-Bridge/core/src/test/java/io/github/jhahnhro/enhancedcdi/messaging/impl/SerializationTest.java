@@ -63,7 +63,8 @@ class SerializationTest {
 
         @BeforeEach
         void mockEnhancedInstance() {
-            when(enhancedInstance.select(any(Type.class), eq(Selected.Literal.INSTANCE))).thenReturn(enhancedInstance);
+            when(enhancedInstance.selectUnchecked(any(Type.class), eq(Selected.Literal.INSTANCE))).thenReturn(
+                    enhancedInstance);
         }
 
         private void mockSelectedMessageWriter() {
@@ -4,13 +4,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConnectionFactory;
+import io.github.jhahnhro.enhancedcdi.messaging.Configuration;
 import io.github.jhahnhro.enhancedcdi.messaging.Consolidated;
+import io.github.jhahnhro.enhancedcdi.messaging.Retry;
 import io.github.jhahnhro.enhancedcdi.messaging.Topology;
 import io.github.jhahnhro.enhancedcdi.pooled.BlockingPool;
+import jakarta.enterprise.event.Event;
 import jakarta.enterprise.util.AnnotationLiteral;
 import jakarta.inject.Inject;
 import org.jboss.weld.junit.MockBean;
@@ -18,6 +26,7 @@ import org.jboss.weld.junit5.EnableWeld;
 import org.jboss.weld.junit5.WeldInitiator;
 import org.jboss.weld.junit5.WeldSetup;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +47,7 @@ class ChannelProducerTest {
                               .addQualifier(new AnnotationLiteral<Consolidated>() {})
                               .build())
             .addBeans(MockBean.of(mock(BookkeepingConnection.class), BookkeepingConnection.class))
+            .addBeans(MockBean.of(new Configuration(new ConnectionFactory(), Retry.NO_RETRY), Configuration.class))
             .build();
 
     @Inject
@@ -46,6 +56,9 @@ class ChannelProducerTest {
     @Inject
     BlockingPool<Channel> channelPool;
 
+    @Inject
+    Event<ConnectionEstablished> connectionEstablished;
+
     @Mock
     Channel channel;
 
@@ -101,4 +114,198 @@ class ChannelProducerTest {
 
         verify(connectionMock, times(2)).acquireChannel();
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenConnectionUnchanged_whenUsingPool_thenDoNotQueryChannelMax() throws InterruptedException {
+        when(channel.isOpen()).thenReturn(true);
+        channelPool.run(ch -> {}); // initializes the pool
+        clearInvocations(connectionMock);
+
+        channelPool.run(ch -> {});
+        channelPool.run(ch -> {});
+
+        verify(connectionMock, never()).getChannelMax();
+    }
+
+    @Test
+    void givenConnectionEstablished_whenUsingPool_thenResize() throws InterruptedException {
+        when(channel.isOpen()).thenReturn(true);
+        channelPool.run(ch -> {}); // initializes the pool
+        when(connectionMock.getChannelMax()).thenReturn(MAX_CHANNEL_NR / 2);
+
+        connectionEstablished.fire(new ConnectionEstablished(connectionMock, true));
+        channelPool.run(ch -> {});
+
+        assertThat(channelPool.capacity()).isEqualTo(MAX_CHANNEL_NR / 2);
+    }
+
+    @Nested
+    class TestThreadAffinity {
+
+        private static final int CHANNEL_MAX = 4;
+        private static final int AFFINE_CHANNELS = CHANNEL_MAX / 2;
+
+        @WeldSetup
+        WeldInitiator w = WeldInitiator.from(ChannelProducer.class)
+                .addBeans(MockBean.builder()
+                                  .creating(new Topology.Builder().build())
+                                  .types(Topology.class)
+                                  .addQualifier(new AnnotationLiteral<Consolidated>() {})
+                                  .build())
+                .addBeans(MockBean.of(mock(BookkeepingConnection.class), BookkeepingConnection.class))
+                .addBeans(MockBean.of(new Configuration(new ConnectionFactory(), Retry.NO_RETRY)
+                                              .withPublisherChannelAffinity(Configuration.ChannelAffinity.THREAD),
+                                      Configuration.class))
+                .build();
+
+        @Inject
+        BookkeepingConnection connectionMock;
+
+        @Inject
+        BlockingPool<Channel> channelPool;
+
+        @BeforeEach
+        void setUp() throws IOException, InterruptedException {
+            lenient().when(connectionMock.createChannel()).then(invocation -> openChannel());
+            lenient().when(connectionMock.acquireChannel()).then(invocation -> openChannel());
+            when(connectionMock.getChannelMax()).thenReturn(CHANNEL_MAX);
+        }
+
+        private static Channel openChannel() {
+            final Channel channel = mock(Channel.class);
+            lenient().when(channel.isOpen()).thenReturn(true);
+            return channel;
+        }
+
+        private static Thread start(Task task) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            return thread;
+        }
+
+        @Test
+        void capacity() {
+            assertThat(channelPool.capacity()).isEqualTo(CHANNEL_MAX - AFFINE_CHANNELS);
+        }
+
+        @Test
+        void givenConnectionEstablished_whenUsingPool_thenResizeSharedPool(Event<ConnectionEstablished> event)
+                throws InterruptedException {
+            channelPool.run(ch -> {}); // initializes the pool
+            when(connectionMock.getChannelMax()).thenReturn(2 * CHANNEL_MAX);
+
+            event.fire(new ConnectionEstablished(connectionMock, true));
+            channelPool.run(ch -> {});
+
+            assertThat(channelPool.capacity()).isEqualTo(CHANNEL_MAX);
+        }
+
+        @Test
+        void givenSameThread_whenUsingPoolTwice_thenReuseChannel() throws IOException, InterruptedException {
+            final Channel first = channelPool.apply(ch -> ch);
+            final Channel second = channelPool.apply(ch -> ch);
+
+            assertThat(second).isSameAs(first);
+            verify(connectionMock).createChannel();
+            verify(connectionMock, never()).acquireChannel();
+        }
+
+        @Test
+        void givenChannelInUse_whenUsingPoolFromWithin_thenUseSharedPool() throws IOException, InterruptedException {
+            final AtomicReference<Channel> inner = new AtomicReference<>();
+
+            final Channel outer = channelPool.apply(ch -> {
+                channelPool.run(inner::set);
+                return ch;
+            });
+
+            assertThat(inner.get()).isNotNull().isNotSameAs(outer);
+            verify(connectionMock).createChannel();
+            verify(connectionMock).acquireChannel();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenAllAffineChannelsTaken_whenUsingPool_thenUseSharedPool() throws IOException, InterruptedException {
+            final CountDownLatch used = new CountDownLatch(AFFINE_CHANNELS);
+            final CountDownLatch terminate = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < AFFINE_CHANNELS; i++) {
+                threads.add(start(() -> {
+                    channelPool.run(ch -> used.countDown());
+                    terminate.await();
+                }));
+            }
+            used.await();
+
+            channelPool.run(ch -> {});
+
+            verify(connectionMock, times(AFFINE_CHANNELS)).createChannel();
+            verify(connectionMock).acquireChannel();
+
+            terminate.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenThreadsTerminated_whenUsingPool_thenDestroyTheirChannels() throws IOException, InterruptedException {
+            final List<Channel> channelsOfTerminatedThreads = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < AFFINE_CHANNELS; i++) {
+                start(() -> channelPool.run(channelsOfTerminatedThreads::add)).join();
+            }
+
+            final Channel channel = channelPool.apply(ch -> ch);
+
+            for (Channel channelOfTerminatedThread : channelsOfTerminatedThreads) {
+                verify(channelOfTerminatedThread).abort();
+            }
+            assertThat(channelsOfTerminatedThreads).doesNotContain(channel);
+            verify(connectionMock, times(AFFINE_CHANNELS + 1)).createChannel();
+            verify(connectionMock, never()).acquireChannel();
+        }
+
+        @Test
+        @Timeout(value = 5, unit = TimeUnit.SECONDS)
+        void givenChannelInUse_whenClose_thenDestroyChannelAfterUse() throws IOException, InterruptedException {
+            final AtomicReference<Channel> channelInUse = new AtomicReference<>();
+            final CountDownLatch used = new CountDownLatch(1);
+            final CountDownLatch closed = new CountDownLatch(1);
+            final Thread thread = start(() -> channelPool.run(ch -> {
+                channelInUse.set(ch);
+                used.countDown();
+                closed.await();
+            }));
+            used.await();
+
+            channelPool.close();
+            verify(channelInUse.get(), never()).abort();
+
+            closed.countDown();
+            thread.join();
+            verify(channelInUse.get()).abort();
+        }
+
+        @Test
+        void givenIdleChannel_whenClose_thenDestroyChannel() throws IOException, InterruptedException {
+            final Channel channel = channelPool.apply(ch -> ch);
+
+            channelPool.close();
+
+            verify(channel).abort();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws InterruptedException;
+    }
+}